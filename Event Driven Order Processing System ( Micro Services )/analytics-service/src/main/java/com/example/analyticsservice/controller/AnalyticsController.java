@@ -0,0 +1,47 @@
+package com.example.analyticsservice.controller;
+
+import com.example.analyticsservice.model.OrderWindowStats;
+import com.example.analyticsservice.model.PaymentWindowStats;
+import com.example.analyticsservice.model.WindowType;
+import com.example.analyticsservice.model.WindowedStats;
+import com.example.analyticsservice.service.AnalyticsQueryService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Instant;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/analytics")
+@RequiredArgsConstructor
+public class AnalyticsController {
+    private final AnalyticsQueryService analyticsQueryService;
+
+    @GetMapping("/orders")
+    public ResponseEntity<List<WindowedStats<OrderWindowStats>>> getOrderStats(
+            @RequestParam(defaultValue = "tumbling") String window,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(defaultValue = "false") boolean local) {
+        Instant end = to == null ? Instant.now() : to;
+        Instant start = from == null ? analyticsQueryService.defaultFrom(end) : from;
+        return ResponseEntity.ok(analyticsQueryService.getOrderStats(windowType(window), start, end, local));
+    }
+
+    @GetMapping("/payments")
+    public ResponseEntity<List<WindowedStats<PaymentWindowStats>>> getPaymentStats(
+            @RequestParam(defaultValue = "tumbling") String window,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(defaultValue = "false") boolean local) {
+        Instant end = to == null ? Instant.now() : to;
+        Instant start = from == null ? analyticsQueryService.defaultFrom(end) : from;
+        return ResponseEntity.ok(analyticsQueryService.getPaymentStats(windowType(window), start, end, local));
+    }
+
+    private static WindowType windowType(String window) {
+        return WindowType.valueOf(window.toUpperCase());
+    }
+}
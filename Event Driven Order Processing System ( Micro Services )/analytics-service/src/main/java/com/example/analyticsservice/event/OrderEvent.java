@@ -0,0 +1,20 @@
+package com.example.analyticsservice.event;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * The fields of order-service's order event that analytics reads; other fields are ignored.
+ */
+@Data
+@NoArgsConstructor
+public class OrderEvent implements TimestampedEvent {
+    private Long orderId;
+    private String customerId;
+    private String status;
+    private BigDecimal totalAmount;
+    private LocalDateTime timestamp;
+}
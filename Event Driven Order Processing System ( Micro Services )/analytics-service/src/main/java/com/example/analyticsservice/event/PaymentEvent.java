@@ -0,0 +1,20 @@
+package com.example.analyticsservice.event;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * The fields of payment-service's payment event that analytics reads; other fields are ignored.
+ */
+@Data
+@NoArgsConstructor
+public class PaymentEvent implements TimestampedEvent {
+    private Long paymentId;
+    private Long orderId;
+    private BigDecimal amount;
+    private String status;
+    private LocalDateTime timestamp;
+}
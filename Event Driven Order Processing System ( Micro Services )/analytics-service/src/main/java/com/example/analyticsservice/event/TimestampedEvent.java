@@ -0,0 +1,10 @@
+package com.example.analyticsservice.event;
+
+import java.time.LocalDateTime;
+
+/**
+ * An event carrying the time it happened, as opposed to the time it reached Kafka.
+ */
+public interface TimestampedEvent {
+    LocalDateTime getTimestamp();
+}
@@ -0,0 +1,15 @@
+package com.example.analyticsservice.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class AnalyticsUnavailableException extends RuntimeException {
+    public AnalyticsUnavailableException(String message) {
+        super(message);
+    }
+
+    public AnalyticsUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
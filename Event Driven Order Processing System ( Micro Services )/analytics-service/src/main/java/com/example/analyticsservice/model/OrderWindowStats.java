@@ -0,0 +1,35 @@
+package com.example.analyticsservice.model;
+
+import com.example.analyticsservice.event.OrderEvent;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Order events seen in one window: how many orders moved into each status, and the
+ * summed totalAmount of those orders per status.
+ */
+@Data
+@NoArgsConstructor
+public class OrderWindowStats {
+    private Map<String, Long> countsByStatus = new TreeMap<>();
+    private Map<String, BigDecimal> amountByStatus = new TreeMap<>();
+
+    public OrderWindowStats add(OrderEvent event) {
+        String status = event.getStatus() == null ? "UNKNOWN" : event.getStatus();
+        countsByStatus.merge(status, 1L, Long::sum);
+        if (event.getTotalAmount() != null) {
+            amountByStatus.merge(status, event.getTotalAmount(), BigDecimal::add);
+        }
+        return this;
+    }
+
+    public OrderWindowStats merge(OrderWindowStats other) {
+        other.countsByStatus.forEach((status, count) -> countsByStatus.merge(status, count, Long::sum));
+        other.amountByStatus.forEach((status, amount) -> amountByStatus.merge(status, amount, BigDecimal::add));
+        return this;
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.analyticsservice.model;
+
+import com.example.analyticsservice.event.PaymentEvent;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Payment events seen in one window. The failure ratio only counts settled payments,
+ * so pending and in-flight payments do not dilute it.
+ */
+@Data
+@NoArgsConstructor
+@JsonIgnoreProperties(value = "failureRatio", allowGetters = true)
+public class PaymentWindowStats {
+    private static final String COMPLETED = "COMPLETED";
+    private static final String FAILED = "FAILED";
+
+    private Map<String, Long> countsByStatus = new TreeMap<>();
+    private BigDecimal completedAmount = BigDecimal.ZERO;
+
+    public PaymentWindowStats add(PaymentEvent event) {
+        String status = event.getStatus() == null ? "UNKNOWN" : event.getStatus();
+        countsByStatus.merge(status, 1L, Long::sum);
+        if (COMPLETED.equals(status) && event.getAmount() != null) {
+            completedAmount = completedAmount.add(event.getAmount());
+        }
+        return this;
+    }
+
+    public PaymentWindowStats merge(PaymentWindowStats other) {
+        other.countsByStatus.forEach((status, count) -> countsByStatus.merge(status, count, Long::sum));
+        completedAmount = completedAmount.add(other.completedAmount);
+        return this;
+    }
+
+    public double getFailureRatio() {
+        long failed = countsByStatus.getOrDefault(FAILED, 0L);
+        long settled = failed + countsByStatus.getOrDefault(COMPLETED, 0L);
+        return settled == 0 ? 0.0 : (double) failed / settled;
+    }
+}
@@ -0,0 +1,6 @@
+package com.example.analyticsservice.model;
+
+public enum WindowType {
+    TUMBLING,
+    HOPPING
+}
@@ -0,0 +1,16 @@
+package com.example.analyticsservice.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WindowedStats<T> {
+    private Instant windowStart;
+    private Instant windowEnd;
+    private T stats;
+}
@@ -0,0 +1,160 @@
+package com.example.analyticsservice.service;
+
+import com.example.analyticsservice.exception.AnalyticsUnavailableException;
+import com.example.analyticsservice.model.OrderWindowStats;
+import com.example.analyticsservice.model.PaymentWindowStats;
+import com.example.analyticsservice.model.WindowType;
+import com.example.analyticsservice.model.WindowedStats;
+import com.example.analyticsservice.stream.AnalyticsTopology;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.streams.KafkaStreams;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.StoreQueryParameters;
+import org.apache.kafka.streams.StreamsMetadata;
+import org.apache.kafka.streams.errors.InvalidStateStoreException;
+import org.apache.kafka.streams.kstream.Windowed;
+import org.apache.kafka.streams.state.HostInfo;
+import org.apache.kafka.streams.state.KeyValueIterator;
+import org.apache.kafka.streams.state.QueryableStoreTypes;
+import org.apache.kafka.streams.state.ReadOnlyWindowStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.kafka.config.StreamsBuilderFactoryBean;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.BinaryOperator;
+
+/**
+ * Answers window queries from the Kafka Streams state stores. Each bucket key lives on
+ * exactly one instance, so a query reads the local store, asks every other instance that
+ * hosts the store for its local share, and merges the buckets of each window.
+ */
+@Slf4j
+@Service
+public class AnalyticsQueryService {
+    private static final ParameterizedTypeReference<List<WindowedStats<OrderWindowStats>>> ORDER_RESPONSE =
+            new ParameterizedTypeReference<>() {};
+    private static final ParameterizedTypeReference<List<WindowedStats<PaymentWindowStats>>> PAYMENT_RESPONSE =
+            new ParameterizedTypeReference<>() {};
+
+    private final StreamsBuilderFactoryBean streamsFactory;
+    private final AnalyticsTopology topology;
+    private final RestClient restClient;
+    private final HostInfo self;
+
+    public AnalyticsQueryService(StreamsBuilderFactoryBean streamsFactory,
+                                 AnalyticsTopology topology,
+                                 RestClient.Builder restClientBuilder,
+                                 @Value("${spring.kafka.streams.properties.application.server:localhost:8084}") String applicationServer) {
+        this.streamsFactory = streamsFactory;
+        this.topology = topology;
+        this.restClient = restClientBuilder.build();
+        this.self = HostInfo.buildFromEndpoint(applicationServer);
+    }
+
+    public List<WindowedStats<OrderWindowStats>> getOrderStats(WindowType type, Instant from, Instant to, boolean localOnly) {
+        String store = AnalyticsTopology.orderStore(type);
+        Map<Instant, WindowedStats<OrderWindowStats>> windows = new TreeMap<>();
+        collectLocal(store, from, to, windows, OrderWindowStats::merge);
+        if (!localOnly) {
+            for (HostInfo host : remoteHosts(store)) {
+                List<WindowedStats<OrderWindowStats>> remote = fetchRemote(host, "orders", type, from, to, ORDER_RESPONSE);
+                remote.forEach(window -> mergeInto(windows, window, OrderWindowStats::merge));
+            }
+        }
+        return new ArrayList<>(windows.values());
+    }
+
+    public List<WindowedStats<PaymentWindowStats>> getPaymentStats(WindowType type, Instant from, Instant to, boolean localOnly) {
+        String store = AnalyticsTopology.paymentStore(type);
+        Map<Instant, WindowedStats<PaymentWindowStats>> windows = new TreeMap<>();
+        collectLocal(store, from, to, windows, PaymentWindowStats::merge);
+        if (!localOnly) {
+            for (HostInfo host : remoteHosts(store)) {
+                List<WindowedStats<PaymentWindowStats>> remote = fetchRemote(host, "payments", type, from, to, PAYMENT_RESPONSE);
+                remote.forEach(window -> mergeInto(windows, window, PaymentWindowStats::merge));
+            }
+        }
+        return new ArrayList<>(windows.values());
+    }
+
+    /**
+     * The default query range: everything the stores still retain.
+     */
+    public Instant defaultFrom(Instant to) {
+        return to.minus(topology.retention());
+    }
+
+    private <T> void collectLocal(String storeName, Instant from, Instant to,
+                                  Map<Instant, WindowedStats<T>> windows, BinaryOperator<T> merger) {
+        ReadOnlyWindowStore<String, T> store = localStore(storeName);
+        try (KeyValueIterator<Windowed<String>, T> iterator = store.fetchAll(from, to)) {
+            while (iterator.hasNext()) {
+                KeyValue<Windowed<String>, T> entry = iterator.next();
+                mergeInto(windows, new WindowedStats<>(entry.key.window().startTime(),
+                        entry.key.window().endTime(), entry.value), merger);
+            }
+        } catch (InvalidStateStoreException e) {
+            throw new AnalyticsUnavailableException("State store " + storeName + " is not queryable right now", e);
+        }
+    }
+
+    private <T> ReadOnlyWindowStore<String, T> localStore(String storeName) {
+        KafkaStreams streams = runningStreams();
+        try {
+            return streams.store(StoreQueryParameters.fromNameAndType(storeName, QueryableStoreTypes.<String, T>windowStore()));
+        } catch (InvalidStateStoreException e) {
+            // Thrown while a rebalance or restore is in progress
+            throw new AnalyticsUnavailableException("State store " + storeName + " is not queryable right now", e);
+        }
+    }
+
+    private List<HostInfo> remoteHosts(String storeName) {
+        List<HostInfo> hosts = new ArrayList<>();
+        for (StreamsMetadata metadata : runningStreams().streamsMetadataForStore(storeName)) {
+            if (!metadata.hostInfo().equals(self)) {
+                hosts.add(metadata.hostInfo());
+            }
+        }
+        return hosts;
+    }
+
+    private <T> List<WindowedStats<T>> fetchRemote(HostInfo host, String path, WindowType type, Instant from, Instant to,
+                                                   ParameterizedTypeReference<List<WindowedStats<T>>> responseType) {
+        try {
+            List<WindowedStats<T>> windows = restClient.get()
+                    .uri("http://{host}:{port}/api/analytics/{path}?window={window}&from={from}&to={to}&local=true",
+                            host.host(), host.port(), path, type.name().toLowerCase(), from, to)
+                    .retrieve()
+                    .body(responseType);
+            return windows == null ? List.of() : windows;
+        } catch (RestClientException e) {
+            // A partial answer would silently under-count; fail the query instead
+            throw new AnalyticsUnavailableException("Analytics instance " + host.host() + ":" + host.port()
+                    + " did not answer", e);
+        }
+    }
+
+    private KafkaStreams runningStreams() {
+        KafkaStreams streams = streamsFactory.getKafkaStreams();
+        if (streams == null || streams.state() != KafkaStreams.State.RUNNING) {
+            throw new AnalyticsUnavailableException("Analytics streams are "
+                    + (streams == null ? "not started" : streams.state()));
+        }
+        return streams;
+    }
+
+    private static <T> void mergeInto(Map<Instant, WindowedStats<T>> windows, WindowedStats<T> window, BinaryOperator<T> merger) {
+        windows.merge(window.getWindowStart(), window, (existing, added) -> {
+            existing.setStats(merger.apply(existing.getStats(), added.getStats()));
+            return existing;
+        });
+    }
+}
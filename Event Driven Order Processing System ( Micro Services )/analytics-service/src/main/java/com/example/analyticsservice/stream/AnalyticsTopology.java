@@ -0,0 +1,136 @@
+package com.example.analyticsservice.stream;
+
+import com.example.analyticsservice.event.OrderEvent;
+import com.example.analyticsservice.event.PaymentEvent;
+import com.example.analyticsservice.model.OrderWindowStats;
+import com.example.analyticsservice.model.PaymentWindowStats;
+import com.example.analyticsservice.model.WindowType;
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.common.utils.Bytes;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.kstream.Consumed;
+import org.apache.kafka.streams.kstream.Grouped;
+import org.apache.kafka.streams.kstream.KGroupedStream;
+import org.apache.kafka.streams.kstream.KStream;
+import org.apache.kafka.streams.kstream.Materialized;
+import org.apache.kafka.streams.kstream.TimeWindows;
+import org.apache.kafka.streams.state.WindowStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.support.serializer.JsonSerde;
+import org.springframework.util.StringUtils;
+
+import java.time.Duration;
+import java.time.ZoneId;
+
+/**
+ * Aggregates order-events and payment-events into tumbling and hopping windows held in
+ * local RocksDB stores. Events are re-keyed into a fixed number of buckets derived from the
+ * order id: the work spreads across partitions and instances, while a query only has to
+ * merge a handful of keys per window. Late events are still counted until the grace period
+ * after their window has passed; anything later is dropped and shows up in Kafka Streams'
+ * dropped-records metric.
+ */
+@Configuration
+public class AnalyticsTopology {
+    public static final String ORDER_EVENTS_TOPIC = "order-events";
+    public static final String PAYMENT_EVENTS_TOPIC = "payment-events";
+
+    private final Duration tumblingSize;
+    private final Duration hoppingSize;
+    private final Duration hoppingAdvance;
+    private final Duration grace;
+    private final Duration retention;
+    private final int buckets;
+    private final EventTimestampExtractor timestampExtractor;
+
+    public AnalyticsTopology(@Value("${analytics.windows.tumbling-size:1m}") Duration tumblingSize,
+                             @Value("${analytics.windows.hopping-size:5m}") Duration hoppingSize,
+                             @Value("${analytics.windows.hopping-advance:1m}") Duration hoppingAdvance,
+                             @Value("${analytics.windows.grace:30s}") Duration grace,
+                             @Value("${analytics.windows.retention:1h}") Duration retention,
+                             @Value("${analytics.buckets:8}") int buckets,
+                             @Value("${analytics.event-time-zone:}") String eventTimeZone) {
+        this.tumblingSize = tumblingSize;
+        this.hoppingSize = hoppingSize;
+        this.hoppingAdvance = hoppingAdvance;
+        this.grace = grace;
+        // Window stores reject a retention shorter than window size plus grace
+        Duration minimum = hoppingSize.compareTo(tumblingSize) > 0 ? hoppingSize.plus(grace) : tumblingSize.plus(grace);
+        this.retention = retention.compareTo(minimum) < 0 ? minimum : retention;
+        this.buckets = buckets;
+        this.timestampExtractor = new EventTimestampExtractor(StringUtils.hasText(eventTimeZone)
+                ? ZoneId.of(eventTimeZone) : ZoneId.systemDefault());
+    }
+
+    public static String orderStore(WindowType type) {
+        return "order-stats-" + type.name().toLowerCase();
+    }
+
+    public static String paymentStore(WindowType type) {
+        return "payment-stats-" + type.name().toLowerCase();
+    }
+
+    public Duration retention() {
+        return retention;
+    }
+
+    @Bean
+    public KStream<String, OrderEvent> orderAnalyticsStream(StreamsBuilder builder) {
+        Serde<OrderEvent> eventSerde = new JsonSerde<>(OrderEvent.class).ignoreTypeHeaders();
+        Serde<OrderWindowStats> statsSerde = new JsonSerde<>(OrderWindowStats.class).noTypeInfo();
+
+        KStream<String, OrderEvent> events = builder.stream(ORDER_EVENTS_TOPIC,
+                Consumed.with(Serdes.String(), eventSerde).withTimestampExtractor(timestampExtractor));
+        KGroupedStream<String, OrderEvent> grouped = events
+                .filter((key, event) -> event != null && event.getOrderId() != null)
+                .groupBy((key, event) -> bucket(event.getOrderId()),
+                        Grouped.with("order-buckets", Serdes.String(), eventSerde));
+
+        for (WindowType type : WindowType.values()) {
+            grouped.windowedBy(windows(type))
+                    .aggregate(OrderWindowStats::new, (bucket, event, stats) -> stats.add(event),
+                            Materialized.<String, OrderWindowStats, WindowStore<Bytes, byte[]>>as(orderStore(type))
+                                    .withKeySerde(Serdes.String())
+                                    .withValueSerde(statsSerde)
+                                    .withRetention(retention));
+        }
+        return events;
+    }
+
+    @Bean
+    public KStream<String, PaymentEvent> paymentAnalyticsStream(StreamsBuilder builder) {
+        Serde<PaymentEvent> eventSerde = new JsonSerde<>(PaymentEvent.class).ignoreTypeHeaders();
+        Serde<PaymentWindowStats> statsSerde = new JsonSerde<>(PaymentWindowStats.class).noTypeInfo();
+
+        KStream<String, PaymentEvent> events = builder.stream(PAYMENT_EVENTS_TOPIC,
+                Consumed.with(Serdes.String(), eventSerde).withTimestampExtractor(timestampExtractor));
+        KGroupedStream<String, PaymentEvent> grouped = events
+                .filter((key, event) -> event != null && event.getOrderId() != null)
+                .groupBy((key, event) -> bucket(event.getOrderId()),
+                        Grouped.with("payment-buckets", Serdes.String(), eventSerde));
+
+        for (WindowType type : WindowType.values()) {
+            grouped.windowedBy(windows(type))
+                    .aggregate(PaymentWindowStats::new, (bucket, event, stats) -> stats.add(event),
+                            Materialized.<String, PaymentWindowStats, WindowStore<Bytes, byte[]>>as(paymentStore(type))
+                                    .withKeySerde(Serdes.String())
+                                    .withValueSerde(statsSerde)
+                                    .withRetention(retention));
+        }
+        return events;
+    }
+
+    private TimeWindows windows(WindowType type) {
+        return switch (type) {
+            case TUMBLING -> TimeWindows.ofSizeAndGrace(tumblingSize, grace);
+            case HOPPING -> TimeWindows.ofSizeAndGrace(hoppingSize, grace).advanceBy(hoppingAdvance);
+        };
+    }
+
+    private String bucket(Long orderId) {
+        return "bucket-" + Math.floorMod(orderId.hashCode(), buckets);
+    }
+}
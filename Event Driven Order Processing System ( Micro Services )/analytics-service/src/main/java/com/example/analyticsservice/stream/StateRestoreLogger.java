@@ -0,0 +1,44 @@
+package com.example.analyticsservice.stream;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.streams.processor.StateRestoreListener;
+import org.springframework.kafka.config.StreamsBuilderFactoryBean;
+import org.springframework.kafka.config.StreamsBuilderFactoryBeanConfigurer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Logs how much changelog each store replays on startup or rebalance and how long it takes.
+ * With persistent state and standby replicas this should be close to zero; a large replay
+ * means the state directory was lost or no standby was available.
+ */
+@Slf4j
+@Component
+public class StateRestoreLogger implements StateRestoreListener, StreamsBuilderFactoryBeanConfigurer {
+    private final Map<TopicPartition, Long> startNanos = new ConcurrentHashMap<>();
+
+    @Override
+    public void configure(StreamsBuilderFactoryBean factoryBean) {
+        factoryBean.setStateRestoreListener(this);
+    }
+
+    @Override
+    public void onRestoreStart(TopicPartition partition, String storeName, long startingOffset, long endingOffset) {
+        startNanos.put(partition, System.nanoTime());
+        log.info("Restoring {} from {}: {} records to replay", storeName, partition, endingOffset - startingOffset);
+    }
+
+    @Override
+    public void onBatchRestored(TopicPartition partition, String storeName, long batchEndOffset, long numRestored) {
+    }
+
+    @Override
+    public void onRestoreEnd(TopicPartition partition, String storeName, long totalRestored) {
+        Long started = startNanos.remove(partition);
+        long millis = started == null ? 0 : (System.nanoTime() - started) / 1_000_000;
+        log.info("Restored {} from {}: {} records in {} ms", storeName, partition, totalRestored, millis);
+    }
+}
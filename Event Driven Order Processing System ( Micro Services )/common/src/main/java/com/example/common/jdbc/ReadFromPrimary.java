@@ -0,0 +1,19 @@
+package com.example.common.jdbc;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Keeps a {@code @Transactional(readOnly = true)} method on the primary when read replica
+ * routing is active. Meant for reads whose result outlives the request, such as
+ * {@code @Cacheable} methods: a row read from a lagging replica would stay in the cache
+ * until it is evicted or expires, long after the replica has caught up.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ReadFromPrimary {
+}
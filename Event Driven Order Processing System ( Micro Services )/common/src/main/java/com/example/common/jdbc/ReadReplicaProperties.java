@@ -0,0 +1,22 @@
+package com.example.common.jdbc;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Replica connection settings. Pool sizing is bound separately from
+ * {@code datasource.replica.hikari.*} straight onto the replica's Hikari pool.
+ */
+@Data
+@ConfigurationProperties(prefix = "datasource.replica")
+public class ReadReplicaProperties {
+    private String url;
+    /** Defaults to {@code spring.datasource.username}. */
+    private String username;
+    /** Defaults to {@code spring.datasource.password}. */
+    private String password;
+    /** How long a caller's reads stay on the primary after it commits a write. */
+    private long stickyWindowMs = 1000;
+    private String callerHeader = "X-Client-Id";
+    private int maxTrackedCallers = 100000;
+}
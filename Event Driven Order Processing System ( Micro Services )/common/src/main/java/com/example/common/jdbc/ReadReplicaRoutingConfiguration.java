@@ -0,0 +1,160 @@
+package com.example.common.jdbc;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.sql.Connection;
+
+/**
+ * Active when {@code datasource.replica.url} is set: the service DataSource becomes a
+ * read/write router, so {@code @Transactional(readOnly = true)} methods read from a separate
+ * replica pool while writes, a caller's reads shortly after its own writes and
+ * {@link ReadFromPrimary} methods use the primary.
+ */
+@AutoConfiguration
+@ConditionalOnClass(HikariDataSource.class)
+@ConditionalOnProperty(name = "datasource.replica.url")
+@EnableConfigurationProperties(ReadReplicaProperties.class)
+public class ReadReplicaRoutingConfiguration {
+
+    @Bean
+    public ReadYourWritesGuard readYourWritesGuard(ReadReplicaProperties properties) {
+        return new ReadYourWritesGuard(properties.getStickyWindowMs(), properties.getMaxTrackedCallers());
+    }
+
+    @Bean
+    public static BeanPostProcessor readReplicaRoutingPostProcessor(Environment environment,
+                                                                    ObjectProvider<ReadYourWritesGuard> guard) {
+        return new RoutingDataSourcePostProcessor(environment, guard);
+    }
+
+    /**
+     * Outermost around {@link ReadFromPrimary} methods, so the pin is in place before a cache
+     * miss opens the read-only transaction.
+     */
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static Advisor readFromPrimaryAdvisor(ObjectProvider<ReadYourWritesGuard> guard) {
+        DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(
+                AnnotationMatchingPointcut.forMethodAnnotation(ReadFromPrimary.class),
+                (MethodInterceptor) invocation -> {
+                    try (ReadYourWritesGuard.Scope scope = guard.getObject().pinToPrimary()) {
+                        return invocation.proceed();
+                    }
+                });
+        advisor.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return advisor;
+    }
+
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter(ReadYourWritesGuard guard,
+                                                                             ReadReplicaProperties properties) {
+        FilterRegistrationBean<ReadYourWritesFilter> registration =
+                new FilterRegistrationBean<>(new ReadYourWritesFilter(guard, properties.getCallerHeader()));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(name = "org.hibernate.SessionFactory")
+    static class HibernateRoutingConfiguration {
+        // Holding a connection across transactions (e.g. with open-in-view) would pin a
+        // request's later transactions to whichever database its first one used
+        @Bean
+        public HibernatePropertiesCustomizer releaseConnectionAfterTransaction() {
+            return properties -> properties.put(
+                    "hibernate.connection.handling_mode", "DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION");
+        }
+    }
+
+    /**
+     * Ordered before the unordered SQL profiler, which then sees both targets.
+     */
+    static class RoutingDataSourcePostProcessor implements BeanPostProcessor, Ordered {
+        private final Environment environment;
+        private final ObjectProvider<ReadYourWritesGuard> guard;
+
+        RoutingDataSourcePostProcessor(Environment environment, ObjectProvider<ReadYourWritesGuard> guard) {
+            this.environment = environment;
+            this.guard = guard;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (!"dataSource".equals(beanName) || !(bean instanceof DataSource primary)) {
+                return bean;
+            }
+            ReadWriteRoutingDataSource router =
+                    new ReadWriteRoutingDataSource(primary, createReplica(), guard.getObject());
+            ClosingLazyConnectionDataSourceProxy lazy = new ClosingLazyConnectionDataSourceProxy(router);
+            lazy.setDefaultAutoCommit(true);
+            lazy.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+            lazy.afterPropertiesSet();
+            return lazy;
+        }
+
+        private DataSource createReplica() {
+            Binder binder = Binder.get(environment);
+            ReadReplicaProperties properties = binder.bind("datasource.replica", ReadReplicaProperties.class)
+                    .orElseThrow(() -> new IllegalStateException("datasource.replica.url is not set"));
+
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName("replica-pool");
+            replica.setJdbcUrl(properties.getUrl());
+            replica.setUsername(properties.getUsername() != null
+                    ? properties.getUsername() : environment.getProperty("spring.datasource.username"));
+            replica.setPassword(properties.getPassword() != null
+                    ? properties.getPassword() : environment.getProperty("spring.datasource.password"));
+            replica.setDriverClassName(environment.getProperty("spring.datasource.driver-class-name"));
+            replica.setReadOnly(true);
+            binder.bind("datasource.replica.hikari", Bindable.ofInstance(replica));
+            return replica;
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE + 1;
+        }
+    }
+
+    /**
+     * Lets the container close both pools at shutdown through the outermost wrapper.
+     */
+    static class ClosingLazyConnectionDataSourceProxy extends LazyConnectionDataSourceProxy implements Closeable {
+        private final ReadWriteRoutingDataSource router;
+
+        ClosingLazyConnectionDataSourceProxy(ReadWriteRoutingDataSource router) {
+            this.router = router;
+            setTargetDataSource(router);
+        }
+
+        @Override
+        public void close() {
+            router.close();
+        }
+    }
+}
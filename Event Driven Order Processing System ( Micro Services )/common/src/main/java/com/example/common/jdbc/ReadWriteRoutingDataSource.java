@@ -0,0 +1,70 @@
+package com.example.common.jdbc;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.util.Map;
+
+/**
+ * Sends connections for {@code @Transactional(readOnly = true)} work to the replica and
+ * everything else to the primary. The decision is made when the connection is first used,
+ * so this must sit behind a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy};
+ * by then the transaction's read-only flag has been published.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+    enum Target { PRIMARY, REPLICA }
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private final ReadYourWritesGuard guard;
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, ReadYourWritesGuard guard) {
+        this.primary = primary;
+        this.replica = replica;
+        this.guard = guard;
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return Target.PRIMARY;
+        }
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return guard.isPinnedToPrimary() ? Target.PRIMARY : Target.REPLICA;
+        }
+        // The stickiness window starts once the caller's write is visible on the primary
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    guard.recordWrite();
+                }
+            });
+        } else {
+            guard.recordWrite();
+        }
+        return Target.PRIMARY;
+    }
+
+    @Override
+    public void close() {
+        closeIfPossible(replica);
+        closeIfPossible(primary);
+    }
+
+    private static void closeIfPossible(DataSource dataSource) {
+        if (dataSource instanceof AutoCloseable closeable) {
+            try {
+                closeable.close();
+            } catch (Exception e) {
+                // Shutting down; nothing useful to do with a failure here
+            }
+        }
+    }
+}
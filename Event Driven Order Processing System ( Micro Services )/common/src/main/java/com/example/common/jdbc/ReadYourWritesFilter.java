@@ -0,0 +1,32 @@
+package com.example.common.jdbc;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Identifies the caller of each HTTP request for {@link ReadYourWritesGuard}, from the
+ * configured header or, failing that, the client address.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+    private final ReadYourWritesGuard guard;
+    private final String callerHeader;
+
+    public ReadYourWritesFilter(ReadYourWritesGuard guard, String callerHeader) {
+        this.guard = guard;
+        this.callerHeader = callerHeader;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String caller = request.getHeader(callerHeader);
+        try (ReadYourWritesGuard.Scope scope = guard.bind(caller != null ? caller : request.getRemoteAddr())) {
+            chain.doFilter(request, response);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.common.jdbc;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Remembers when each caller last committed a write so that its reads stay on the primary
+ * for a short window afterwards, hiding replica lag from the client that caused the change.
+ * The caller is bound per unit of work (see {@link ReadYourWritesFilter}); work with no
+ * bound caller, such as Kafka listeners, is never pinned.
+ */
+public class ReadYourWritesGuard {
+    private static final ThreadLocal<String> CALLER = new ThreadLocal<>();
+    private static final ThreadLocal<Boolean> PRIMARY_ONLY = new ThreadLocal<>();
+
+    private final long stickyWindowNanos;
+    private final int maxTrackedCallers;
+    private final Map<String, Long> lastWriteNanos = new ConcurrentHashMap<>();
+
+    public ReadYourWritesGuard(long stickyWindowMs, int maxTrackedCallers) {
+        this.stickyWindowNanos = TimeUnit.MILLISECONDS.toNanos(stickyWindowMs);
+        this.maxTrackedCallers = maxTrackedCallers;
+    }
+
+    /**
+     * Binds {@code caller} to the current thread until the returned scope is closed.
+     */
+    public Scope bind(String caller) {
+        String previous = CALLER.get();
+        CALLER.set(caller);
+        return () -> {
+            if (previous == null) {
+                CALLER.remove();
+            } else {
+                CALLER.set(previous);
+            }
+        };
+    }
+
+    /**
+     * Sends every read on the current thread to the primary until the returned scope is
+     * closed, whoever the caller is (see {@link ReadFromPrimary}).
+     */
+    public Scope pinToPrimary() {
+        Boolean previous = PRIMARY_ONLY.get();
+        PRIMARY_ONLY.set(Boolean.TRUE);
+        return () -> {
+            if (previous == null) {
+                PRIMARY_ONLY.remove();
+            } else {
+                PRIMARY_ONLY.set(previous);
+            }
+        };
+    }
+
+    public boolean isPinnedToPrimary() {
+        if (PRIMARY_ONLY.get() != null) {
+            return true;
+        }
+        String caller = CALLER.get();
+        if (caller == null) {
+            return false;
+        }
+        Long wroteAt = lastWriteNanos.get(caller);
+        return wroteAt != null && System.nanoTime() - wroteAt < stickyWindowNanos;
+    }
+
+    public void recordWrite() {
+        String caller = CALLER.get();
+        if (caller == null) {
+            return;
+        }
+        long now = System.nanoTime();
+        lastWriteNanos.put(caller, now);
+        if (lastWriteNanos.size() > maxTrackedCallers) {
+            evictExpired(now);
+        }
+    }
+
+    private void evictExpired(long now) {
+        Iterator<Long> writes = lastWriteNanos.values().iterator();
+        while (writes.hasNext()) {
+            if (now - writes.next() >= stickyWindowNanos) {
+                writes.remove();
+            }
+        }
+    }
+
+    @FunctionalInterface
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,241 @@
+package com.example.common.kafka;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.WakeupException;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
+import org.springframework.kafka.support.serializer.SerializationUtils;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
+
+/**
+ * Local, in-memory copy of a log-compacted topic: every partition is read from the
+ * beginning and then tailed, so the map holds the latest value per key. No consumer group
+ * is used; each instance reads the whole topic and commits nothing. A compacted topic holds
+ * one record per key, so bootstrap costs one sequential read of about that many records
+ * instead of a database scan.
+ * <p>
+ * Values carrying a version only replace older ones, which keeps the view monotonic when
+ * several producers publish the same key. Null values (tombstones) remove the key; records
+ * that cannot be deserialized are skipped. If the consumer fails, the view is rebuilt with a
+ * fresh one after a backoff and reports itself unhealthy until it has caught up again.
+ * <p>
+ * Every (re)build reads into a new map that replaces the published one only once it has
+ * caught up, so {@link #get} keeps answering from the last complete view meanwhile rather
+ * than from a partial one.
+ */
+@Slf4j
+public class CompactedTopicView<V> implements SmartLifecycle {
+    private static final Duration POLL_TIMEOUT = Duration.ofMillis(500);
+    private static final long PARTITION_CHECK_INTERVAL_MS = 60_000;
+    private static final long RESTART_BACKOFF_MS = 5_000;
+
+    private final String topic;
+    private final Map<String, Object> consumerConfig;
+    private final Deserializer<V> valueDeserializer;
+    private final ToLongFunction<V> versionOf;
+    private volatile Map<String, V> values = new ConcurrentHashMap<>();
+    private final CountDownLatch bootstrapped = new CountDownLatch(1);
+    private volatile KafkaConsumer<String, V> consumer;
+    private volatile Thread poller;
+    private volatile boolean running;
+    private volatile boolean caughtUp;
+
+    /**
+     * @param consumerConfig at least {@code bootstrap.servers}; fetch sizes are raised for bootstrap
+     * @param versionOf      version of a value, or null when every record replaces the last
+     */
+    public CompactedTopicView(String topic, Map<String, Object> consumerConfig,
+                              Deserializer<V> valueDeserializer, ToLongFunction<V> versionOf) {
+        this.topic = topic;
+        this.consumerConfig = consumerConfig;
+        this.valueDeserializer = valueDeserializer;
+        this.versionOf = versionOf;
+    }
+
+    public Optional<V> get(String key) {
+        return Optional.ofNullable(values.get(key));
+    }
+
+    public int size() {
+        return values.size();
+    }
+
+    /**
+     * Whether everything that was in the topic when the view started has been applied.
+     */
+    public boolean isBootstrapped() {
+        return bootstrapped.getCount() == 0;
+    }
+
+    /**
+     * Whether the view is being kept up to date and has caught up with the topic since its
+     * consumer last (re)started. Reads should fall back to the source of truth otherwise.
+     */
+    public boolean isHealthy() {
+        return running && caughtUp;
+    }
+
+    public boolean awaitBootstrap(Duration timeout) throws InterruptedException {
+        return bootstrapped.await(timeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        poller = new Thread(this::pollLoop, "compacted-view-" + topic);
+        poller.setDaemon(true);
+        poller.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        KafkaConsumer<String, V> current = consumer;
+        if (current != null) {
+            current.wakeup();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void pollLoop() {
+        while (running) {
+            try (KafkaConsumer<String, V> kafkaConsumer = createConsumer()) {
+                consumer = kafkaConsumer;
+                // Rebuilt from scratch: tombstones for keys deleted meanwhile may have been compacted away
+                Map<String, V> building = new ConcurrentHashMap<>();
+                Map<TopicPartition, Long> bootstrapEnd = null;
+                long started = System.nanoTime();
+                long applied = 0;
+                long nextPartitionCheck = 0;
+                while (running) {
+                    // Also picks up the topic once it exists, and partitions added later
+                    if (kafkaConsumer.assignment().isEmpty() || System.currentTimeMillis() >= nextPartitionCheck) {
+                        assignNewPartitions(kafkaConsumer);
+                        nextPartitionCheck = System.currentTimeMillis() + PARTITION_CHECK_INTERVAL_MS;
+                        if (kafkaConsumer.assignment().isEmpty()) {
+                            sleepQuietly(POLL_TIMEOUT.toMillis());
+                            continue;
+                        }
+                    }
+                    if (bootstrapEnd == null) {
+                        bootstrapEnd = kafkaConsumer.endOffsets(kafkaConsumer.assignment());
+                    }
+
+                    ConsumerRecords<String, V> records = kafkaConsumer.poll(POLL_TIMEOUT);
+                    for (ConsumerRecord<String, V> record : records) {
+                        if (record.headers().lastHeader(SerializationUtils.VALUE_DESERIALIZER_EXCEPTION_HEADER) != null) {
+                            log.warn("Skipping undeserializable record at {}-{} offset {}",
+                                    record.topic(), record.partition(), record.offset());
+                            continue;
+                        }
+                        apply(building, record.key(), record.value());
+                    }
+                    applied += records.count();
+                    if (!caughtUp && checkBootstrapped(kafkaConsumer, bootstrapEnd, started, applied, building)) {
+                        // From here on the published map is the one being updated
+                        values = building;
+                        caughtUp = true;
+                    }
+                }
+            } catch (WakeupException e) {
+                // stop() was called
+            } catch (RuntimeException e) {
+                caughtUp = false;
+                log.warn("Compacted view of {} failed, restarting in {} ms: {}", topic, RESTART_BACKOFF_MS, e.getMessage());
+                sleepQuietly(RESTART_BACKOFF_MS);
+            }
+        }
+        caughtUp = false;
+    }
+
+    private KafkaConsumer<String, V> createConsumer() {
+        Map<String, Object> config = new HashMap<>();
+        config.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        config.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        // Bootstrap is a bulk sequential read: fetch big chunks
+        config.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, 10000);
+        config.put(ConsumerConfig.FETCH_MAX_BYTES_CONFIG, 64 * 1024 * 1024);
+        config.put(ConsumerConfig.MAX_PARTITION_FETCH_BYTES_CONFIG, 16 * 1024 * 1024);
+        config.putAll(consumerConfig);
+        config.remove(ConsumerConfig.GROUP_ID_CONFIG);
+        // A failed value comes through as null plus an exception header, never as a tombstone
+        return new KafkaConsumer<>(config, new StringDeserializer(), new ErrorHandlingDeserializer<>(valueDeserializer));
+    }
+
+    /**
+     * Assigns partitions not yet assigned, reading each from the beginning.
+     */
+    private void assignNewPartitions(KafkaConsumer<String, V> kafkaConsumer) {
+        List<PartitionInfo> partitions = kafkaConsumer.partitionsFor(topic);
+        if (partitions == null || partitions.size() == kafkaConsumer.assignment().size()) {
+            return;
+        }
+        Set<TopicPartition> assigned = new HashSet<>(kafkaConsumer.assignment());
+        List<TopicPartition> added = partitions.stream()
+                .map(info -> new TopicPartition(topic, info.partition()))
+                .filter(partition -> !assigned.contains(partition))
+                .collect(Collectors.toList());
+        assigned.addAll(added);
+        kafkaConsumer.assign(assigned);
+        kafkaConsumer.seekToBeginning(added);
+    }
+
+    private boolean checkBootstrapped(KafkaConsumer<String, V> kafkaConsumer, Map<TopicPartition, Long> end,
+                                      long started, long applied, Map<String, V> built) {
+        for (Map.Entry<TopicPartition, Long> partition : end.entrySet()) {
+            if (kafkaConsumer.position(partition.getKey()) < partition.getValue()) {
+                return false;
+            }
+        }
+        log.info("{} view of {} with {} keys from {} records in {} ms", isBootstrapped() ? "Rebuilt" : "Bootstrapped",
+                topic, built.size(), applied, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        bootstrapped.countDown();
+        return true;
+    }
+
+    private static void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void apply(Map<String, V> target, String key, V value) {
+        if (key == null) {
+            return;
+        }
+        if (value == null) {
+            target.remove(key);
+        } else if (versionOf == null) {
+            target.put(key, value);
+        } else {
+            target.merge(key, value, (current, next) ->
+                    versionOf.applyAsLong(next) >= versionOf.applyAsLong(current) ? next : current);
+        }
+    }
+}
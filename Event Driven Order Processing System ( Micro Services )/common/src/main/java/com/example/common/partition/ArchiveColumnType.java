@@ -0,0 +1,170 @@
+package com.example.common.partition;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Value encodings used by the columnar archive. Values are written without type tags;
+ * the column's type is recorded once in the file header.
+ */
+enum ArchiveColumnType {
+    LONG {
+        @Override
+        Object read(ResultSet rs, int column) throws SQLException {
+            long value = rs.getLong(column);
+            return rs.wasNull() ? null : value;
+        }
+
+        @Override
+        void encode(DataOutput out, Object value) throws IOException {
+            out.writeLong((Long) value);
+        }
+
+        @Override
+        Object decode(DataInput in) throws IOException {
+            return in.readLong();
+        }
+    },
+    INT {
+        @Override
+        Object read(ResultSet rs, int column) throws SQLException {
+            int value = rs.getInt(column);
+            return rs.wasNull() ? null : value;
+        }
+
+        @Override
+        void encode(DataOutput out, Object value) throws IOException {
+            out.writeInt((Integer) value);
+        }
+
+        @Override
+        Object decode(DataInput in) throws IOException {
+            return in.readInt();
+        }
+    },
+    DOUBLE {
+        @Override
+        Object read(ResultSet rs, int column) throws SQLException {
+            double value = rs.getDouble(column);
+            return rs.wasNull() ? null : value;
+        }
+
+        @Override
+        void encode(DataOutput out, Object value) throws IOException {
+            out.writeDouble((Double) value);
+        }
+
+        @Override
+        Object decode(DataInput in) throws IOException {
+            return in.readDouble();
+        }
+    },
+    BOOLEAN {
+        @Override
+        Object read(ResultSet rs, int column) throws SQLException {
+            boolean value = rs.getBoolean(column);
+            return rs.wasNull() ? null : value;
+        }
+
+        @Override
+        void encode(DataOutput out, Object value) throws IOException {
+            out.writeBoolean((Boolean) value);
+        }
+
+        @Override
+        Object decode(DataInput in) throws IOException {
+            return in.readBoolean();
+        }
+    },
+    DECIMAL {
+        @Override
+        Object read(ResultSet rs, int column) throws SQLException {
+            return rs.getBigDecimal(column);
+        }
+
+        @Override
+        void encode(DataOutput out, Object value) throws IOException {
+            BigDecimal decimal = (BigDecimal) value;
+            byte[] unscaled = decimal.unscaledValue().toByteArray();
+            out.writeShort(decimal.scale());
+            out.writeByte(unscaled.length);
+            out.write(unscaled);
+        }
+
+        @Override
+        Object decode(DataInput in) throws IOException {
+            int scale = in.readShort();
+            byte[] unscaled = new byte[in.readUnsignedByte()];
+            in.readFully(unscaled);
+            return new BigDecimal(new BigInteger(unscaled), scale);
+        }
+    },
+    TIMESTAMP {
+        @Override
+        Object read(ResultSet rs, int column) throws SQLException {
+            Timestamp value = rs.getTimestamp(column);
+            return value == null ? null : value.toLocalDateTime();
+        }
+
+        @Override
+        void encode(DataOutput out, Object value) throws IOException {
+            LocalDateTime timestamp = (LocalDateTime) value;
+            out.writeLong(timestamp.toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(timestamp.getNano());
+        }
+
+        @Override
+        Object decode(DataInput in) throws IOException {
+            return LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC);
+        }
+    },
+    STRING {
+        @Override
+        Object read(ResultSet rs, int column) throws SQLException {
+            return rs.getString(column);
+        }
+
+        @Override
+        void encode(DataOutput out, Object value) throws IOException {
+            byte[] bytes = ((String) value).getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+
+        @Override
+        Object decode(DataInput in) throws IOException {
+            byte[] bytes = new byte[in.readInt()];
+            in.readFully(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    };
+
+    abstract Object read(ResultSet rs, int column) throws SQLException;
+
+    abstract void encode(DataOutput out, Object value) throws IOException;
+
+    abstract Object decode(DataInput in) throws IOException;
+
+    static ArchiveColumnType forSqlType(int sqlType) {
+        return switch (sqlType) {
+            case Types.BIGINT -> LONG;
+            case Types.INTEGER, Types.SMALLINT, Types.TINYINT -> INT;
+            case Types.REAL, Types.FLOAT, Types.DOUBLE -> DOUBLE;
+            case Types.BIT, Types.BOOLEAN -> BOOLEAN;
+            case Types.NUMERIC, Types.DECIMAL -> DECIMAL;
+            case Types.TIMESTAMP, Types.TIMESTAMP_WITH_TIMEZONE, Types.DATE -> TIMESTAMP;
+            // Enums, UUIDs, JSON and text all round-trip through their string form
+            default -> STRING;
+        };
+    }
+}
@@ -0,0 +1,204 @@
+package com.example.common.partition;
+
+import com.example.common.partition.ColumnarArchiveWriter.BlockIndex;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Reads files written by {@link ColumnarArchiveWriter}. Only the header and block index are
+ * kept in memory; a lookup inflates just the blocks whose key range contains the key.
+ * Safe for concurrent lookups.
+ */
+public final class ColumnarArchiveReader implements Closeable {
+    private final Path file;
+    private final FileChannel channel;
+    private final String[] columns;
+    private final ArchiveColumnType[] types;
+    private final int keyColumn;
+    private final List<BlockIndex> blocks;
+
+    private ColumnarArchiveReader(Path file, FileChannel channel, String[] columns, ArchiveColumnType[] types,
+                                  int keyColumn, List<BlockIndex> blocks) {
+        this.file = file;
+        this.channel = channel;
+        this.columns = columns;
+        this.types = types;
+        this.keyColumn = keyColumn;
+        this.blocks = blocks;
+    }
+
+    public static ColumnarArchiveReader open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            ByteBuffer trailer = readFully(channel, channel.size() - 12, 12);
+            long footerOffset = trailer.getLong();
+            if (trailer.getInt() != ColumnarArchiveWriter.MAGIC) {
+                throw new IOException("Not a complete archive file: " + file);
+            }
+
+            // Not closed: closing the stream would close the channel
+            DataInputStream header = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel.position(0))));
+            if (header.readInt() != ColumnarArchiveWriter.MAGIC || header.readInt() != ColumnarArchiveWriter.VERSION) {
+                throw new IOException("Unsupported archive file: " + file);
+            }
+            int count = header.readInt();
+            String[] columns = new String[count];
+            ArchiveColumnType[] types = new ArchiveColumnType[count];
+            for (int i = 0; i < count; i++) {
+                columns[i] = header.readUTF();
+                types[i] = ArchiveColumnType.values()[header.readByte()];
+            }
+            int keyColumn = header.readInt();
+
+            ByteBuffer footer = readFully(channel, footerOffset, (int) (channel.size() - 12 - footerOffset));
+            int blockCount = footer.getInt();
+            List<BlockIndex> blocks = new ArrayList<>(blockCount);
+            for (int i = 0; i < blockCount; i++) {
+                blocks.add(new BlockIndex(footer.getLong(), footer.getLong(), footer.getLong(),
+                        footer.getInt(), footer.getInt(), footer.getInt()));
+            }
+            return new ColumnarArchiveReader(file, channel, columns, types, keyColumn, blocks);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public Path file() {
+        return file;
+    }
+
+    public boolean mayContain(long key) {
+        return !blocks.isEmpty() && key >= blocks.get(0).minKey() && key <= blocks.get(blocks.size() - 1).maxKey();
+    }
+
+    /**
+     * Rows whose key column equals {@code key}, as column name to value maps.
+     */
+    public List<Map<String, Object>> find(long key) throws IOException {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (BlockIndex block : blocks) {
+            if (key >= block.minKey() && key <= block.maxKey()) {
+                readMatching(block, key, rows);
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Inflates every block and checks its row count against the index, returning the total
+     * number of rows. Used to confirm a file is complete before its source rows are dropped.
+     */
+    public long verify() throws IOException {
+        long total = 0;
+        for (BlockIndex block : blocks) {
+            int rows = ByteBuffer.wrap(inflate(block)).getInt();
+            if (rows != block.rows()) {
+                throw new IOException("Archive block at offset " + block.offset() + " in " + file
+                        + " holds " + rows + " rows, index says " + block.rows());
+            }
+            total += rows;
+        }
+        return total;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void readMatching(BlockIndex block, long key, List<Map<String, Object>> rows) throws IOException {
+        byte[] raw = inflate(block);
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(raw));
+        int rowCount = in.readInt();
+        int[] offsets = new int[columns.length];
+        int offset = 4 + 4 * columns.length;
+        for (int i = 0; i < columns.length; i++) {
+            offsets[i] = offset;
+            offset += in.readInt();
+        }
+
+        // Scan the key column alone first; most blocks in range hold no match
+        Object[] keys = decodeColumn(raw, offsets[keyColumn], keyColumn, rowCount);
+        List<Integer> matches = new ArrayList<>();
+        for (int row = 0; row < rowCount; row++) {
+            if (((Number) keys[row]).longValue() == key) {
+                matches.add(row);
+            }
+        }
+        if (matches.isEmpty()) {
+            return;
+        }
+
+        Object[][] values = new Object[columns.length][];
+        for (int i = 0; i < columns.length; i++) {
+            values[i] = i == keyColumn ? keys : decodeColumn(raw, offsets[i], i, rowCount);
+        }
+        for (int row : matches) {
+            Map<String, Object> record = new LinkedHashMap<>();
+            for (int i = 0; i < columns.length; i++) {
+                record.put(columns[i], values[i][row]);
+            }
+            rows.add(record);
+        }
+    }
+
+    private Object[] decodeColumn(byte[] raw, int offset, int column, int rowCount) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(raw, offset, raw.length - offset));
+        Object[] values = new Object[rowCount];
+        for (int row = 0; row < rowCount; row++) {
+            values[row] = in.readBoolean() ? types[column].decode(in) : null;
+        }
+        return values;
+    }
+
+    private byte[] inflate(BlockIndex block) throws IOException {
+        byte[] compressed = readFully(channel, block.offset(), block.compressedLength()).array();
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            byte[] raw = new byte[block.rawLength()];
+            int length = 0;
+            while (length < raw.length && !inflater.finished()) {
+                int inflated = inflater.inflate(raw, length, raw.length - length);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                length += inflated;
+            }
+            if (length != raw.length) {
+                throw new IOException("Truncated archive block at offset " + block.offset() + " in " + file);
+            }
+            return raw;
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt archive block at offset " + block.offset() + " in " + file, e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of archive file");
+            }
+        }
+        return buffer.flip();
+    }
+}
@@ -0,0 +1,186 @@
+package com.example.common.partition;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Streams rows, sorted by a numeric key column, into a compact columnar file:
+ * <pre>
+ * header:  magic, version, column count, (name, type)*, key column index
+ * blocks:  deflate(row count, (column length)*, column values*)*
+ * footer:  block count, (min key, max key, offset, compressed length, raw length, rows)*,
+ *          footer offset, magic
+ * </pre>
+ * Values within a column are stored together, so repetitive columns such as status and
+ * timestamps compress well, and a lookup inflates only the block whose key range matches.
+ */
+public final class ColumnarArchiveWriter implements Closeable {
+    static final int MAGIC = 0x41524331;
+    static final int VERSION = 1;
+
+    private final FileChannel channel;
+    private final String[] columns;
+    private final ArchiveColumnType[] types;
+    private final int keyColumn;
+    private final int blockRows;
+    private final ByteArrayOutputStream[] columnBytes;
+    private final DataOutputStream[] columnData;
+    private final List<BlockIndex> blocks = new ArrayList<>();
+    private long position;
+    private int rowsInBlock;
+    private long minKey;
+    private long maxKey;
+    private long rowCount;
+
+    private ColumnarArchiveWriter(Path file, String[] columns, ArchiveColumnType[] types, int keyColumn,
+                                  int blockRows) throws IOException {
+        this.channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        this.columns = columns;
+        this.types = types;
+        this.keyColumn = keyColumn;
+        this.blockRows = blockRows;
+        this.columnBytes = new ByteArrayOutputStream[columns.length];
+        this.columnData = new DataOutputStream[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            columnBytes[i] = new ByteArrayOutputStream();
+            columnData[i] = new DataOutputStream(columnBytes[i]);
+        }
+        writeHeader();
+    }
+
+    /**
+     * Opens a writer whose columns mirror the result set. {@code keyColumn} must be numeric
+     * and the rows must arrive in ascending key order.
+     */
+    public static ColumnarArchiveWriter create(Path file, ResultSetMetaData metaData, String keyColumn,
+                                               int blockRows) throws IOException, SQLException {
+        int count = metaData.getColumnCount();
+        String[] columns = new String[count];
+        ArchiveColumnType[] types = new ArchiveColumnType[count];
+        int key = -1;
+        for (int i = 0; i < count; i++) {
+            columns[i] = metaData.getColumnName(i + 1);
+            types[i] = ArchiveColumnType.forSqlType(metaData.getColumnType(i + 1));
+            if (columns[i].equalsIgnoreCase(keyColumn)) {
+                key = i;
+            }
+        }
+        if (key < 0 || (types[key] != ArchiveColumnType.LONG && types[key] != ArchiveColumnType.INT)) {
+            throw new IllegalArgumentException("Archive key " + keyColumn + " is not a numeric column");
+        }
+        return new ColumnarArchiveWriter(file, columns, types, key, blockRows);
+    }
+
+    public void append(ResultSet rs) throws IOException, SQLException {
+        for (int i = 0; i < columns.length; i++) {
+            Object value = types[i].read(rs, i + 1);
+            if (value == null) {
+                columnData[i].writeBoolean(false);
+            } else {
+                columnData[i].writeBoolean(true);
+                types[i].encode(columnData[i], value);
+            }
+            if (i == keyColumn) {
+                long key = ((Number) value).longValue();
+                minKey = rowsInBlock == 0 ? key : Math.min(minKey, key);
+                maxKey = rowsInBlock == 0 ? key : Math.max(maxKey, key);
+            }
+        }
+        rowCount++;
+        if (++rowsInBlock == blockRows) {
+            flushBlock();
+        }
+    }
+
+    public long rowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Writes the last block and the footer, and forces the file to disk.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            if (rowsInBlock > 0) {
+                flushBlock();
+            }
+            ByteArrayOutputStream footerBytes = new ByteArrayOutputStream();
+            DataOutputStream footer = new DataOutputStream(footerBytes);
+            footer.writeInt(blocks.size());
+            for (BlockIndex block : blocks) {
+                footer.writeLong(block.minKey());
+                footer.writeLong(block.maxKey());
+                footer.writeLong(block.offset());
+                footer.writeInt(block.compressedLength());
+                footer.writeInt(block.rawLength());
+                footer.writeInt(block.rows());
+            }
+            footer.writeLong(position);
+            footer.writeInt(MAGIC);
+            write(footerBytes.toByteArray());
+            channel.force(true);
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void writeHeader() throws IOException {
+        ByteArrayOutputStream headerBytes = new ByteArrayOutputStream();
+        DataOutputStream header = new DataOutputStream(headerBytes);
+        header.writeInt(MAGIC);
+        header.writeInt(VERSION);
+        header.writeInt(columns.length);
+        for (int i = 0; i < columns.length; i++) {
+            header.writeUTF(columns[i]);
+            header.writeByte(types[i].ordinal());
+        }
+        header.writeInt(keyColumn);
+        write(headerBytes.toByteArray());
+    }
+
+    private void flushBlock() throws IOException {
+        ByteArrayOutputStream raw = new ByteArrayOutputStream();
+        DataOutputStream block = new DataOutputStream(raw);
+        block.writeInt(rowsInBlock);
+        for (ByteArrayOutputStream column : columnBytes) {
+            block.writeInt(column.size());
+        }
+        for (ByteArrayOutputStream column : columnBytes) {
+            column.writeTo(block);
+            column.reset();
+        }
+
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(raw.size() / 4);
+        try (DeflaterOutputStream deflater = new DeflaterOutputStream(compressed)) {
+            raw.writeTo(deflater);
+        }
+        blocks.add(new BlockIndex(minKey, maxKey, position, compressed.size(), raw.size(), rowsInBlock));
+        write(compressed.toByteArray());
+        rowsInBlock = 0;
+    }
+
+    private void write(byte[] bytes) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        position += bytes.length;
+    }
+
+    record BlockIndex(long minKey, long maxKey, long offset, int compressedLength, int rawLength, int rows) {
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.common.partition;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * PostgreSQL DDL for monthly range partitions on {@code created_at}. Partitions are named
+ * {@code <table>_pYYYYMM}; a {@code <table>_default} partition catches rows outside them.
+ * All methods expect to run inside the caller's transaction.
+ */
+@Slf4j
+public class MonthlyPartitionManager {
+    static final String PARTITION_COLUMN = "created_at";
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public MonthlyPartitionManager(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public boolean exists(String table) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT to_regclass(?) IS NOT NULL", Boolean.class, table));
+    }
+
+    public boolean isPartitioned(String table) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM pg_partitioned_table WHERE partrelid = to_regclass(?))",
+                Boolean.class, table));
+    }
+
+    /**
+     * Rebuilds a plain table as a partitioned one with the same columns, data, id sequence
+     * and non-unique indexes. The primary key becomes {@code (id, created_at)} because
+     * PostgreSQL requires unique constraints to include the partition key; foreign keys to
+     * or from the table are dropped for the same reason.
+     */
+    public void convert(PartitionedTable table, YearMonth through) {
+        String name = table.name();
+        String legacy = name + "_unpartitioned";
+        log.info("Converting {} to a monthly partitioned table", name);
+
+        table.migrationSql().forEach(jdbcTemplate::execute);
+        dropForeignKeys(name);
+        List<String> indexes = jdbcTemplate.queryForList(
+                "SELECT i.indexdef FROM pg_indexes i WHERE i.schemaname = current_schema() AND i.tablename = ? " +
+                "AND NOT EXISTS (SELECT 1 FROM pg_constraint c WHERE c.conname = i.indexname " +
+                "AND c.conrelid = to_regclass(i.tablename))",
+                String.class, name).stream()
+                .filter(definition -> !definition.startsWith("CREATE UNIQUE"))
+                .collect(Collectors.toList());
+        String serialSequence = jdbcTemplate.queryForObject(
+                "SELECT pg_get_serial_sequence(?, 'id')", String.class, name);
+
+        jdbcTemplate.execute("ALTER TABLE " + name + " RENAME TO " + legacy);
+        jdbcTemplate.execute("CREATE TABLE " + name + " (LIKE " + legacy + " INCLUDING DEFAULTS INCLUDING IDENTITY) " +
+                "PARTITION BY RANGE (" + PARTITION_COLUMN + ")");
+        jdbcTemplate.execute("UPDATE " + legacy + " SET " + PARTITION_COLUMN + " = now() WHERE " + PARTITION_COLUMN + " IS NULL");
+        jdbcTemplate.execute("ALTER TABLE " + name + " ALTER COLUMN " + PARTITION_COLUMN + " SET NOT NULL");
+        jdbcTemplate.execute("ALTER TABLE " + name + " ADD PRIMARY KEY (id, " + PARTITION_COLUMN + ")");
+        jdbcTemplate.execute("CREATE TABLE " + name + "_default PARTITION OF " + name + " DEFAULT");
+
+        Timestamp oldest = jdbcTemplate.queryForObject(
+                "SELECT min(" + PARTITION_COLUMN + ") FROM " + legacy, Timestamp.class);
+        YearMonth from = oldest == null ? YearMonth.now() : YearMonth.from(oldest.toLocalDateTime());
+        createPartitions(name, from, through);
+
+        jdbcTemplate.execute("INSERT INTO " + name + " SELECT * FROM " + legacy);
+        if (jdbcTemplate.queryForObject("SELECT pg_get_serial_sequence(?, 'id')", String.class, name) != null) {
+            // New identity sequence: continue after the copied ids
+            jdbcTemplate.queryForObject("SELECT setval(pg_get_serial_sequence(?, 'id'), " +
+                    "GREATEST((SELECT COALESCE(max(id), 0) FROM " + name + "), 1))", Long.class, name);
+        } else if (serialSequence != null) {
+            // serial column: the copied default still uses the old sequence, which must outlive the old table
+            jdbcTemplate.execute("ALTER SEQUENCE " + serialSequence + " OWNED BY " + name + ".id");
+        }
+        jdbcTemplate.execute("DROP TABLE " + legacy);
+        indexes.forEach(jdbcTemplate::execute);
+    }
+
+    public void createPartitions(String table, YearMonth from, YearMonth through) {
+        for (YearMonth month = from; !month.isAfter(through); month = month.plusMonths(1)) {
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + partitionName(table, month) +
+                    " PARTITION OF " + table +
+                    " FOR VALUES FROM ('" + month.atDay(1) + "') TO ('" + month.plusMonths(1).atDay(1) + "')");
+        }
+    }
+
+    /**
+     * Monthly partitions of {@code table} for months before {@code cutoff}, oldest first.
+     */
+    public List<MonthlyPartition> partitionsBefore(String table, YearMonth cutoff) {
+        String prefix = table + "_p";
+        return jdbcTemplate.queryForList(
+                        "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+                        "WHERE i.inhparent = to_regclass(?)", String.class, table).stream()
+                .filter(partition -> partition.startsWith(prefix) && partition.length() == prefix.length() + 6)
+                .map(partition -> new MonthlyPartition(partition,
+                        YearMonth.parse(partition.substring(prefix.length()), SUFFIX)))
+                .filter(partition -> partition.month().isBefore(cutoff))
+                .sorted(Comparator.comparing(MonthlyPartition::month))
+                .collect(Collectors.toList());
+    }
+
+    public void detachAndDrop(String table, MonthlyPartition partition) {
+        jdbcTemplate.execute("ALTER TABLE " + table + " DETACH PARTITION " + partition.name());
+        jdbcTemplate.execute("DROP TABLE " + partition.name());
+    }
+
+    static String partitionName(String table, YearMonth month) {
+        return table + "_p" + SUFFIX.format(month);
+    }
+
+    private void dropForeignKeys(String table) {
+        List<Map<String, Object>> foreignKeys = jdbcTemplate.queryForList(
+                "SELECT conname, conrelid::regclass::text AS owner FROM pg_constraint " +
+                "WHERE contype = 'f' AND (conrelid = to_regclass(?) OR confrelid = to_regclass(?))", table, table);
+        for (Map<String, Object> foreignKey : foreignKeys) {
+            log.info("Dropping foreign key {} on {} before partitioning {}",
+                    foreignKey.get("conname"), foreignKey.get("owner"), table);
+            jdbcTemplate.execute("ALTER TABLE " + foreignKey.get("owner") +
+                    " DROP CONSTRAINT \"" + Objects.toString(foreignKey.get("conname")) + "\"");
+        }
+    }
+
+    public record MonthlyPartition(String name, YearMonth month) {
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.common.partition;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Read side of the partition archive: {@code <archive-dir>/<table>/<partition>.arc} files,
+ * one per archived month. Readers are opened once per file and only their block index is
+ * held in memory, so a miss on the database costs a footer range check per archived month
+ * plus one block inflate for the month that holds the key. Files archived by another
+ * instance are picked up by rescanning the directory on a miss, at most once per
+ * {@code rescanMs}.
+ * <p>
+ * Directory scans run under a {@link ReentrantLock} rather than a monitor or a map compute,
+ * so a virtual thread waiting on another's file I/O unmounts instead of pinning its carrier.
+ */
+@Slf4j
+public class PartitionArchiveStore {
+    static final String EXTENSION = ".arc";
+
+    private final Path archiveDir;
+    private final long rescanNanos;
+    private final Map<String, List<ColumnarArchiveReader>> readers = new ConcurrentHashMap<>();
+    private final Map<String, Long> lastScanNanos = new ConcurrentHashMap<>();
+    private final ReentrantLock scanLock = new ReentrantLock();
+
+    public PartitionArchiveStore(Path archiveDir, long rescanMs) {
+        this.archiveDir = archiveDir;
+        this.rescanNanos = TimeUnit.MILLISECONDS.toNanos(rescanMs);
+    }
+
+    public Optional<Map<String, Object>> findOne(String table, long key) {
+        List<Map<String, Object>> rows = findAll(table, key);
+        return rows.isEmpty() ? Optional.empty() : Optional.of(rows.get(0));
+    }
+
+    public List<Map<String, Object>> findAll(String table, long key) {
+        List<Map<String, Object>> rows = search(readers(table), key);
+        if (rows.isEmpty()) {
+            // The key's partition may have been archived and dropped by another instance
+            rows = search(rescan(table), key);
+        }
+        return rows;
+    }
+
+    private List<Map<String, Object>> search(List<ColumnarArchiveReader> candidates, long key) {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (ColumnarArchiveReader reader : candidates) {
+            if (reader.mayContain(key)) {
+                try {
+                    rows.addAll(reader.find(key));
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Failed to read archive " + reader.file(), e);
+                }
+            }
+        }
+        return rows;
+    }
+
+    Path fileFor(String table, String partition) {
+        return archiveDir.resolve(table).resolve(partition + EXTENSION);
+    }
+
+    /**
+     * Makes a newly written archive file visible to lookups.
+     */
+    void register(String table, Path file) throws IOException {
+        List<ColumnarArchiveReader> tableReaders = readers(table);
+        ColumnarArchiveReader reader = ColumnarArchiveReader.open(file);
+        // Under the scan lock so a concurrent rescan cannot open the same file a second time
+        scanLock.lock();
+        try {
+            // A rerun after a failed detach rewrites the same file; replace the stale reader
+            for (ColumnarArchiveReader existing : tableReaders) {
+                if (existing.file().equals(file)) {
+                    tableReaders.remove(existing);
+                    existing.close();
+                }
+            }
+            tableReaders.add(reader);
+        } finally {
+            scanLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        readers.values().forEach(tableReaders -> tableReaders.forEach(reader -> {
+            try {
+                reader.close();
+            } catch (IOException e) {
+                log.debug("Failed to close archive {}", reader.file(), e);
+            }
+        }));
+    }
+
+    private List<ColumnarArchiveReader> readers(String table) {
+        List<ColumnarArchiveReader> tableReaders = readers.get(table);
+        if (tableReaders != null) {
+            return tableReaders;
+        }
+        scanLock.lock();
+        try {
+            tableReaders = readers.get(table);
+            if (tableReaders == null) {
+                List<ColumnarArchiveReader> opened = openNew(table, Set.of());
+                log.info("Opened {} archive files for {}", opened.size(), table);
+                tableReaders = new CopyOnWriteArrayList<>(opened);
+                readers.put(table, tableReaders);
+            }
+            return tableReaders;
+        } finally {
+            scanLock.unlock();
+        }
+    }
+
+    /**
+     * Opens archive files that appeared since the last scan and returns them, or nothing if
+     * the table was scanned within the rescan interval.
+     */
+    private List<ColumnarArchiveReader> rescan(String table) {
+        List<ColumnarArchiveReader> tableReaders = readers(table);
+        scanLock.lock();
+        try {
+            Long last = lastScanNanos.get(table);
+            if (last != null && System.nanoTime() - last < rescanNanos) {
+                return List.of();
+            }
+            Set<Path> known = tableReaders.stream().map(ColumnarArchiveReader::file).collect(Collectors.toSet());
+            List<ColumnarArchiveReader> added = openNew(table, known);
+            if (!added.isEmpty()) {
+                log.info("Opened {} new archive files for {}", added.size(), table);
+                tableReaders.addAll(added);
+            }
+            return added;
+        } finally {
+            scanLock.unlock();
+        }
+    }
+
+    private List<ColumnarArchiveReader> openNew(String table, Set<Path> known) {
+        Path dir = archiveDir.resolve(table);
+        lastScanNanos.put(table, System.nanoTime());
+        if (!Files.isDirectory(dir)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            List<ColumnarArchiveReader> opened = new ArrayList<>();
+            for (Path file : files.filter(path -> path.toString().endsWith(EXTENSION) && !known.contains(path))
+                    .sorted().collect(Collectors.toList())) {
+                opened.add(ColumnarArchiveReader.open(file));
+            }
+            return opened;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open archives in " + dir, e);
+        }
+    }
+}
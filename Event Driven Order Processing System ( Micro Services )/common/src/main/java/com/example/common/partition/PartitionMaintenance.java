@@ -0,0 +1,185 @@
+package com.example.common.partition;
+
+import com.example.common.partition.MonthlyPartitionManager.MonthlyPartition;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * Keeps the declared tables partitioned by month: converts plain tables and creates
+ * upcoming partitions at startup, and each night also archives partitions older than the
+ * retention window to {@link PartitionArchiveStore} files before detaching and dropping them.
+ * Every pass holds a PostgreSQL advisory lock, so only one instance does the work; that is
+ * why a partition is only dropped once its archive has been read back in full from an
+ * archive-dir that every instance shares. A partition whose archive already exists, reads
+ * back in full and holds as many rows as the partition is not written again, so runs with
+ * {@code archive-shared} off do not rewrite the growing set of kept partitions every night.
+ */
+@Slf4j
+public class PartitionMaintenance implements SmartInitializingSingleton {
+    private static final String LOCK_SQL = "SELECT pg_try_advisory_xact_lock(hashtext('partition-maintenance'))";
+
+    private final List<PartitionedTable> tables;
+    private final PartitioningProperties properties;
+    private final PartitionArchiveStore archiveStore;
+    private final JdbcTemplate jdbcTemplate;
+    private final MonthlyPartitionManager partitionManager;
+    private final TransactionTemplate transactionTemplate;
+
+    public PartitionMaintenance(List<PartitionedTable> tables,
+                                PartitioningProperties properties,
+                                PartitionArchiveStore archiveStore,
+                                DataSource dataSource,
+                                PlatformTransactionManager transactionManager) {
+        this.tables = tables;
+        this.properties = properties;
+        this.archiveStore = archiveStore;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(properties.getArchiveFetchSize());
+        this.partitionManager = new MonthlyPartitionManager(jdbcTemplate);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (properties.isMaintainOnStartup()) {
+            ensurePartitions();
+        }
+    }
+
+    @Scheduled(cron = "${partitioning.maintenance-cron:0 15 1 * * *}")
+    public void runMaintenance() {
+        ensurePartitions();
+        archiveExpiredPartitions();
+    }
+
+    public void ensurePartitions() {
+        YearMonth through = YearMonth.now().plusMonths(properties.getMonthsAhead());
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!tryLock()) {
+                log.debug("Partition maintenance is running on another instance");
+                return;
+            }
+            for (PartitionedTable table : tables) {
+                if (!partitionManager.exists(table.name())) {
+                    log.warn("Table {} does not exist yet, skipping partition maintenance", table.name());
+                    continue;
+                }
+                if (!partitionManager.isPartitioned(table.name())) {
+                    partitionManager.convert(table, through);
+                }
+                table.setupSql().forEach(jdbcTemplate::execute);
+                partitionManager.createPartitions(table.name(), YearMonth.now(), through);
+            }
+        });
+    }
+
+    public void archiveExpiredPartitions() {
+        YearMonth cutoff = YearMonth.now().minusMonths(properties.getRetentionMonths());
+        for (PartitionedTable table : tables) {
+            List<MonthlyPartition> expired = transactionTemplate.execute(status ->
+                    partitionManager.partitionsBefore(table.name(), cutoff));
+            for (MonthlyPartition partition : expired) {
+                // One transaction per partition: the file is durable before the partition is dropped
+                transactionTemplate.executeWithoutResult(status -> {
+                    if (tryLock()) {
+                        archive(table, partition);
+                    }
+                });
+            }
+        }
+    }
+
+    private void archive(PartitionedTable table, MonthlyPartition partition) {
+        Path file = archiveStore.fileFor(table.name(), partition.name());
+        long partitionRows = jdbcTemplate.queryForObject("SELECT count(*) FROM " + partition.name(), Long.class);
+        if (isArchived(file, partitionRows)) {
+            if (properties.isArchiveShared()) {
+                partitionManager.detachAndDrop(table.name(), partition);
+                log.info("Dropped {}, already archived to {}", partition.name(), file);
+            } else {
+                log.debug("Keeping {}, already archived to {}", partition.name(), file);
+            }
+            return;
+        }
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        String orderBy = table.archiveKey().equals("id") ? "id" : table.archiveKey() + ", id";
+        long[] rows = {0};
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            jdbcTemplate.query("SELECT * FROM " + partition.name() + " ORDER BY " + orderBy, rs -> {
+                try (ColumnarArchiveWriter writer = ColumnarArchiveWriter.create(
+                        temp, rs.getMetaData(), table.archiveKey(), properties.getArchiveBlockRows())) {
+                    while (rs.next()) {
+                        writer.append(rs);
+                    }
+                    rows[0] = writer.rowCount();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return null;
+            });
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            verify(file, rows[0]);
+            archiveStore.register(table.name(), file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to archive " + partition.name(), e);
+        }
+
+        if (!properties.isArchiveShared()) {
+            log.warn("Archived {} rows of {} to {} but kept the partition: partitioning.archive-shared is off, "
+                    + "so other instances could not read the archive", rows[0], partition.name(), file);
+            return;
+        }
+        partitionManager.detachAndDrop(table.name(), partition);
+        log.info("Archived {} rows of {} to {} and dropped the partition", rows[0], partition.name(), file);
+    }
+
+    /**
+     * Whether a complete archive of the partition is already on disk. Expired partitions are
+     * not expected to change, so a matching row count means the file is current.
+     */
+    private static boolean isArchived(Path file, long partitionRows) {
+        if (!Files.exists(file)) {
+            return false;
+        }
+        try {
+            verify(file, partitionRows);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Existing archive {} is incomplete or stale, rewriting it: {}", file, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Reads the archive back through a fresh handle on its final path, so the rows are only
+     * dropped once the copy other instances will open is known to be complete.
+     */
+    private static void verify(Path file, long expectedRows) throws IOException {
+        long archived;
+        try (ColumnarArchiveReader reader = ColumnarArchiveReader.open(file)) {
+            archived = reader.verify();
+        }
+        if (archived != expectedRows) {
+            throw new IOException("Archive " + file + " holds " + archived + " rows, expected " + expectedRows);
+        }
+    }
+
+    private boolean tryLock() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(LOCK_SQL, Boolean.class));
+    }
+}
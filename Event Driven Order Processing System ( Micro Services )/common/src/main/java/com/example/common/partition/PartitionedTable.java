@@ -0,0 +1,31 @@
+package com.example.common.partition;
+
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * A table kept range-partitioned by month on {@code created_at}. Services declare one bean
+ * per table; beans are processed in {@link org.springframework.core.annotation.Order} order,
+ * so parents should come before children whose migration reads from them.
+ *
+ * @param name         table name; must have {@code id} and {@code created_at} columns
+ * @param archiveKey   numeric column archived rows are sorted and looked up by
+ * @param migrationSql statements run once, before an unpartitioned table is converted
+ * @param setupSql     idempotent statements run on every maintenance pass after conversion
+ */
+public record PartitionedTable(String name, String archiveKey, List<String> migrationSql, List<String> setupSql) {
+    private static final Pattern IDENTIFIER = Pattern.compile("[a-z_][a-z0-9_]*");
+
+    public PartitionedTable {
+        // Names are spliced into DDL, so only accept plain identifiers
+        if (!IDENTIFIER.matcher(name).matches() || !IDENTIFIER.matcher(archiveKey).matches()) {
+            throw new IllegalArgumentException("Invalid table or column name: " + name + "." + archiveKey);
+        }
+        migrationSql = List.copyOf(migrationSql);
+        setupSql = List.copyOf(setupSql);
+    }
+
+    public PartitionedTable(String name, String archiveKey) {
+        this(name, archiveKey, List.of(), List.of());
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.common.partition;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.nio.file.Paths;
+import java.util.stream.Collectors;
+
+/**
+ * Active in services that declare {@link PartitionedTable} beans. Runs after JPA so that
+ * {@code ddl-auto} has created the tables before they are converted.
+ */
+@AutoConfiguration(after = HibernateJpaAutoConfiguration.class)
+@ConditionalOnBean(PartitionedTable.class)
+@EnableConfigurationProperties(PartitioningProperties.class)
+public class PartitioningConfiguration {
+
+    @Bean
+    public PartitionArchiveStore partitionArchiveStore(PartitioningProperties properties) {
+        return new PartitionArchiveStore(Paths.get(properties.getArchiveDir()), properties.getArchiveRescanMs());
+    }
+
+    @Bean
+    public PartitionMaintenance partitionMaintenance(ObjectProvider<PartitionedTable> tables,
+                                                     PartitioningProperties properties,
+                                                     PartitionArchiveStore archiveStore,
+                                                     DataSource dataSource,
+                                                     PlatformTransactionManager transactionManager) {
+        return new PartitionMaintenance(tables.orderedStream().collect(Collectors.toList()),
+                properties, archiveStore, dataSource, transactionManager);
+    }
+}
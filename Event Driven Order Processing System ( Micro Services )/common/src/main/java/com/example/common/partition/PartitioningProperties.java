@@ -0,0 +1,26 @@
+package com.example.common.partition;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "partitioning")
+public class PartitioningProperties {
+    /** Convert tables and create upcoming partitions while the context starts. */
+    private boolean maintainOnStartup = true;
+    /** Monthly partitions created ahead of the current month. */
+    private int monthsAhead = 3;
+    /** Months kept in the database; older partitions are archived and dropped. */
+    private int retentionMonths = 12;
+    private String archiveDir = "archive";
+    /**
+     * Whether archive-dir is storage every instance mounts. Partitions are only dropped when
+     * it is; otherwise they are archived but kept, since other instances could not read them.
+     */
+    private boolean archiveShared = false;
+    /** Minimum interval between rescans of archive-dir, on a lookup miss, for files other instances wrote. */
+    private long archiveRescanMs = 60000;
+    /** Rows per compressed archive block; the unit read back for a single lookup. */
+    private int archiveBlockRows = 10000;
+    private int archiveFetchSize = 1000;
+}
@@ -0,0 +1,64 @@
+package com.example.common.sql;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.rolling.RollingFileAppender;
+import ch.qos.logback.core.rolling.SizeAndTimeBasedRollingPolicy;
+import ch.qos.logback.core.util.FileSize;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Dedicated logger for slow statements, written to its own size- and day-rotated file
+ * through an async appender so that the query thread never waits on disk I/O.
+ */
+final class SlowQueryLog {
+    static final String LOGGER_NAME = "com.example.common.sql.SlowQueries";
+
+    private SlowQueryLog() {
+    }
+
+    static org.slf4j.Logger configure(SqlProfilingProperties properties) {
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        Logger logger = context.getLogger(LOGGER_NAME);
+        if (logger.getAppender("SLOW_QUERY_ASYNC") != null) {
+            return logger;
+        }
+
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern("%d{ISO8601} [%thread] %msg%n");
+        encoder.start();
+
+        RollingFileAppender<ILoggingEvent> file = new RollingFileAppender<>();
+        file.setContext(context);
+        file.setName("SLOW_QUERY_FILE");
+        file.setFile(properties.getSlowQueryLog());
+        file.setEncoder(encoder);
+
+        SizeAndTimeBasedRollingPolicy<ILoggingEvent> policy = new SizeAndTimeBasedRollingPolicy<>();
+        policy.setContext(context);
+        policy.setParent(file);
+        policy.setFileNamePattern(properties.getSlowQueryLog() + ".%d{yyyy-MM-dd}.%i.gz");
+        policy.setMaxFileSize(FileSize.valueOf(properties.getSlowQueryLogMaxFileSize()));
+        policy.setMaxHistory(properties.getSlowQueryLogMaxHistory());
+        policy.start();
+        file.setRollingPolicy(policy);
+        file.start();
+
+        AsyncAppender async = new AsyncAppender();
+        async.setContext(context);
+        async.setName("SLOW_QUERY_ASYNC");
+        async.setNeverBlock(true);
+        async.addAppender(file);
+        async.start();
+
+        logger.addAppender(async);
+        logger.setLevel(Level.INFO);
+        logger.setAdditive(false);
+        return logger;
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.common.sql;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import javax.sql.DataSource;
+
+/**
+ * Wraps the service DataSource with datasource-proxy so every statement is counted against
+ * the current HTTP request or Kafka record, timed per statement shape, and written to the
+ * slow-query log when it exceeds the threshold. Replaces {@code spring.jpa.show-sql}.
+ */
+@AutoConfiguration
+@ConditionalOnClass(ProxyDataSource.class)
+@ConditionalOnProperty(name = "sql.profiling.enabled", havingValue = "true", matchIfMissing = true)
+@EnableConfigurationProperties(SqlProfilingProperties.class)
+public class SqlProfilingConfiguration {
+
+    @Bean
+    public SqlScopeReporter sqlScopeReporter(SqlProfilingProperties properties) {
+        return new SqlScopeReporter(properties.getRepeatThreshold());
+    }
+
+    @Bean
+    public SqlProfilingListener sqlProfilingListener(SqlProfilingProperties properties,
+                                                     ObjectProvider<MeterRegistry> meterRegistry) {
+        return new SqlProfilingListener(
+                meterRegistry.getIfAvailable(SimpleMeterRegistry::new),
+                SlowQueryLog.configure(properties),
+                properties.getSlowQueryThresholdMs(),
+                properties.getMaxShapes());
+    }
+
+    @Bean
+    public static BeanPostProcessor sqlProfilingDataSourcePostProcessor(ObjectProvider<SqlProfilingListener> listener) {
+        return new ProfilingDataSourcePostProcessor(listener);
+    }
+
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    public FilterRegistrationBean<SqlRequestScopeFilter> sqlRequestScopeFilter(SqlScopeReporter reporter) {
+        FilterRegistrationBean<SqlRequestScopeFilter> registration =
+                new FilterRegistrationBean<>(new SqlRequestScopeFilter(reporter));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(name = "org.springframework.kafka.listener.RecordInterceptor")
+    static class KafkaSqlProfilingConfiguration {
+        // Picked up by Spring Boot's listener container factory configurer
+        @Bean
+        public SqlProfilingRecordInterceptor sqlProfilingRecordInterceptor(SqlScopeReporter reporter) {
+            return new SqlProfilingRecordInterceptor(reporter);
+        }
+    }
+
+    /**
+     * Deliberately unordered so it runs after ordered wrappers such as read/write routing,
+     * and so profiles statements against either pool.
+     */
+    static class ProfilingDataSourcePostProcessor implements BeanPostProcessor {
+        private final ObjectProvider<SqlProfilingListener> listener;
+
+        ProfilingDataSourcePostProcessor(ObjectProvider<SqlProfilingListener> listener) {
+            this.listener = listener;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)) {
+                return ProxyDataSourceBuilder.create(dataSource)
+                        .name(beanName)
+                        .listener(listener.getObject())
+                        .build();
+            }
+            return bean;
+        }
+    }
+}
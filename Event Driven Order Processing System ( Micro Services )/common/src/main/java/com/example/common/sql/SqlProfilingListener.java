@@ -0,0 +1,119 @@
+package com.example.common.sql;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.slf4j.Logger;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Records every round trip against the current {@link SqlRequestScope}, a per-shape latency
+ * histogram, and the slow-query log. A "shape" is the statement text with literals, IN-lists
+ * and multi-row VALUES lists collapsed, so the same query with different values or list
+ * lengths maps to one series. Past {@code maxShapes} distinct shapes, new ones are timed
+ * under a single overflow series so the metric's cardinality stays bounded.
+ */
+public class SqlProfilingListener implements QueryExecutionListener {
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    // A placeholder or a tuple of placeholders, so IN (?, ?) and IN ((?, ?), (?, ?)) both collapse
+    private static final String IN_ELEMENT = "(?:\\?|\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\))";
+    private static final Pattern IN_LIST = Pattern.compile(
+            "(?i)\\bIN\\s*\\(\\s*" + IN_ELEMENT + "(?:\\s*,\\s*" + IN_ELEMENT + ")*\\s*\\)");
+    // One row of a VALUES list, allowing one level of nested parentheses such as casts or calls
+    private static final String VALUES_ROW = "\\((?:[^()']|\\([^()']*\\))*\\)";
+    private static final Pattern VALUES_ROWS = Pattern.compile(
+            "(?i)\\bVALUES\\s*(" + VALUES_ROW + ")(?:\\s*,\\s*" + VALUES_ROW + ")*");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final int MAX_CACHED_SHAPES = 10_000;
+    private static final String OVERFLOW_SHAPE = "other";
+
+    private final MeterRegistry meterRegistry;
+    private final Logger slowQueryLog;
+    private final long slowQueryThresholdMs;
+    private final int maxShapes;
+    private final Map<String, String> shapes = new ConcurrentHashMap<>();
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    public SqlProfilingListener(MeterRegistry meterRegistry, Logger slowQueryLog, long slowQueryThresholdMs,
+                                int maxShapes) {
+        this.meterRegistry = meterRegistry;
+        this.slowQueryLog = slowQueryLog;
+        this.slowQueryThresholdMs = slowQueryThresholdMs;
+        this.maxShapes = maxShapes;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        long elapsedMs = execInfo.getElapsedTime();
+        List<String> queryShapes = queryInfoList.stream().map(queryInfo -> shapeOf(queryInfo.getQuery())).toList();
+        // One callback is one round trip, however many parameter sets a batch carried
+        SqlRequestScope.current().ifPresent(scope -> scope.record(queryShapes, execInfo.isBatch(), elapsedMs));
+        for (int i = 0; i < queryInfoList.size(); i++) {
+            QueryInfo queryInfo = queryInfoList.get(i);
+            timerFor(queryShapes.get(i)).record(elapsedMs, TimeUnit.MILLISECONDS);
+
+            if (elapsedMs >= slowQueryThresholdMs) {
+                slowQueryLog.info("{}ms scope={} success={} query={} params={}",
+                        elapsedMs,
+                        SqlRequestScope.current().map(SqlRequestScope::name).orElse("-"),
+                        execInfo.isSuccess(),
+                        queryInfo.getQuery(),
+                        formatParameters(queryInfo.getParametersList()));
+            }
+        }
+    }
+
+    String shapeOf(String query) {
+        String cached = shapes.get(query);
+        if (cached != null) {
+            return cached;
+        }
+        String shape = STRING_LITERAL.matcher(query).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        shape = IN_LIST.matcher(shape).replaceAll("IN (?)");
+        shape = VALUES_ROWS.matcher(shape).replaceAll("VALUES $1");
+        shape = WHITESPACE.matcher(shape).replaceAll(" ").trim();
+        // Statements with inlined literals are unbounded; only memoise up to a fixed size
+        if (shapes.size() < MAX_CACHED_SHAPES) {
+            shapes.put(query, shape);
+        }
+        return shape;
+    }
+
+    private Timer timerFor(String shape) {
+        Timer timer = timers.get(shape);
+        if (timer != null) {
+            return timer;
+        }
+        String series = timers.size() < maxShapes ? shape : OVERFLOW_SHAPE;
+        return timers.computeIfAbsent(series, s -> Timer.builder("sql.query")
+                .tag("shape", s)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
+
+    private String formatParameters(List<List<ParameterSetOperation>> parametersList) {
+        return parametersList.stream()
+                .map(parameters -> parameters.stream()
+                        .map(operation -> {
+                            Object[] args = operation.getArgs();
+                            return args.length > 1 ? String.valueOf(args[1]) : "";
+                        })
+                        .collect(Collectors.joining(",", "[", "]")))
+                .collect(Collectors.joining(""));
+    }
+}
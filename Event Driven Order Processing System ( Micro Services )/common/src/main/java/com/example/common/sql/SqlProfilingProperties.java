@@ -0,0 +1,18 @@
+package com.example.common.sql;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "sql.profiling")
+public class SqlProfilingProperties {
+    private boolean enabled = true;
+    /** Executions of one statement shape within a single request that are reported as a likely N+1. */
+    private int repeatThreshold = 5;
+    private long slowQueryThresholdMs = 200;
+    /** Distinct statement shapes timed individually; further shapes share the "other" series. */
+    private int maxShapes = 500;
+    private String slowQueryLog = "logs/slow-queries.log";
+    private String slowQueryLogMaxFileSize = "50MB";
+    private int slowQueryLogMaxHistory = 7;
+}
@@ -0,0 +1,35 @@
+package com.example.common.sql;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.kafka.listener.RecordInterceptor;
+
+/**
+ * Opens a {@link SqlRequestScope} around each Kafka record handled by a listener container.
+ */
+public class SqlProfilingRecordInterceptor implements RecordInterceptor<Object, Object> {
+    private static final ThreadLocal<SqlRequestScope> SCOPE = new ThreadLocal<>();
+
+    private final SqlScopeReporter reporter;
+
+    public SqlProfilingRecordInterceptor(SqlScopeReporter reporter) {
+        this.reporter = reporter;
+    }
+
+    @Override
+    public ConsumerRecord<Object, Object> intercept(ConsumerRecord<Object, Object> record,
+                                                    Consumer<Object, Object> consumer) {
+        SCOPE.set(SqlRequestScope.open("KAFKA " + record.topic() + "-" + record.partition() + "@" + record.offset()));
+        return record;
+    }
+
+    @Override
+    public void afterRecord(ConsumerRecord<Object, Object> record, Consumer<Object, Object> consumer) {
+        SqlRequestScope scope = SCOPE.get();
+        if (scope != null) {
+            SCOPE.remove();
+            reporter.report(scope);
+            scope.close();
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.common.sql;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Collects the SQL statements executed on the current thread while one unit of work
+ * (an HTTP request, a Kafka record, or a block of test code) is being processed.
+ *
+ * <pre>
+ * try (SqlRequestScope scope = SqlRequestScope.open("test")) {
+ *     orderService.createOrder(order);
+ *     assertThat(scope.statementCount()).isEqualTo(3);
+ * }
+ * </pre>
+ */
+public final class SqlRequestScope implements AutoCloseable {
+    private static final ThreadLocal<SqlRequestScope> CURRENT = new ThreadLocal<>();
+
+    private final String name;
+    private final SqlRequestScope parent;
+    private final Map<String, Integer> countsByShape = new LinkedHashMap<>();
+    private long statementCount;
+    private long batchCount;
+    private long elapsedMs;
+
+    private SqlRequestScope(String name, SqlRequestScope parent) {
+        this.name = name;
+        this.parent = parent;
+    }
+
+    public static SqlRequestScope open(String name) {
+        SqlRequestScope scope = new SqlRequestScope(name, CURRENT.get());
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    public static Optional<SqlRequestScope> current() {
+        return Optional.ofNullable(CURRENT.get());
+    }
+
+    /**
+     * Records one round trip. Only non-batch executions count towards a shape's repeat count:
+     * a batch is already the fix for repeated statements, not an N+1.
+     */
+    void record(List<String> shapes, boolean batch, long elapsedMs) {
+        this.statementCount++;
+        this.elapsedMs += elapsedMs;
+        if (batch) {
+            batchCount++;
+        } else {
+            shapes.forEach(shape -> countsByShape.merge(shape, 1, Integer::sum));
+        }
+        if (parent != null) {
+            parent.record(shapes, batch, elapsedMs);
+        }
+    }
+
+    public String name() {
+        return name;
+    }
+
+    /**
+     * Database round trips; a JDBC batch counts once however many parameter sets it carried.
+     */
+    public long statementCount() {
+        return statementCount;
+    }
+
+    public long batchCount() {
+        return batchCount;
+    }
+
+    public long elapsedMs() {
+        return elapsedMs;
+    }
+
+    public Map<String, Integer> countsByShape() {
+        return Collections.unmodifiableMap(countsByShape);
+    }
+
+    @Override
+    public void close() {
+        if (parent == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(parent);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.common.sql;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Opens a {@link SqlRequestScope} per HTTP request and reports likely N+1 patterns when it ends.
+ */
+public class SqlRequestScopeFilter extends OncePerRequestFilter {
+    private final SqlScopeReporter reporter;
+
+    public SqlRequestScopeFilter(SqlScopeReporter reporter) {
+        this.reporter = reporter;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        try (SqlRequestScope scope = SqlRequestScope.open(request.getMethod() + " " + request.getRequestURI())) {
+            try {
+                chain.doFilter(request, response);
+            } finally {
+                reporter.report(scope);
+            }
+        }
+    }
+}
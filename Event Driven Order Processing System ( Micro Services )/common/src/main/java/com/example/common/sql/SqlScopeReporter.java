@@ -0,0 +1,29 @@
+package com.example.common.sql;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Logs the statement count of a finished scope and flags statement shapes that ran often
+ * enough within it to suggest an N+1 access pattern.
+ */
+@Slf4j
+public class SqlScopeReporter {
+    private final int repeatThreshold;
+
+    public SqlScopeReporter(int repeatThreshold) {
+        this.repeatThreshold = repeatThreshold;
+    }
+
+    public void report(SqlRequestScope scope) {
+        if (scope.statementCount() == 0) {
+            return;
+        }
+        log.debug("{} executed {} statements ({} batched) in {}ms",
+                scope.name(), scope.statementCount(), scope.batchCount(), scope.elapsedMs());
+        scope.countsByShape().forEach((shape, count) -> {
+            if (count >= repeatThreshold) {
+                log.warn("Possible N+1 in {}: {} executions of [{}]", scope.name(), count, shape);
+            }
+        });
+    }
+}
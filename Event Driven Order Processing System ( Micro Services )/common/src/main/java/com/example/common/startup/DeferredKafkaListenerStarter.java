@@ -0,0 +1,28 @@
+package com.example.common.startup;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+
+/**
+ * Starts Kafka listener containers once the application is ready to serve requests, so
+ * broker connection and partition assignment stay off the startup path. Used together
+ * with {@code spring.kafka.listener.auto-startup=false}.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class DeferredKafkaListenerStarter {
+    private final KafkaListenerEndpointRegistry registry;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startListeners() {
+        registry.getListenerContainers().forEach(container -> {
+            if (!container.isRunning()) {
+                container.start();
+            }
+        });
+        log.info("Started {} deferred Kafka listener containers", registry.getListenerContainers().size());
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.common.startup;
+
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+
+/**
+ * Support for the {@code fast-startup} profile: lazy initialisation that leaves scheduled
+ * jobs and listeners eager, and Kafka listeners started after the application is ready.
+ */
+@AutoConfiguration
+public class FastStartupConfiguration {
+
+    @Bean
+    @ConditionalOnProperty(name = "spring.main.lazy-initialization", havingValue = "true")
+    public static LazyInitializationExcludeFilter startupLazyInitializationExcludeFilter() {
+        return new StartupLazyInitializationExcludeFilter();
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(name = "org.springframework.kafka.config.KafkaListenerEndpointRegistry")
+    @ConditionalOnProperty(name = "startup.defer-kafka-listeners", havingValue = "true")
+    static class DeferredKafkaListenerConfiguration {
+        @Bean
+        public DeferredKafkaListenerStarter deferredKafkaListenerStarter(KafkaListenerEndpointRegistry registry) {
+            return new DeferredKafkaListenerStarter(registry);
+        }
+    }
+}
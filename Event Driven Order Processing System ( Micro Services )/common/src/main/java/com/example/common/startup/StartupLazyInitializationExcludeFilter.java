@@ -0,0 +1,47 @@
+package com.example.common.startup;
+
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.core.MethodIntrospector;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.util.ClassUtils;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.Set;
+
+/**
+ * Keeps beans that must be active without ever being injected (scheduled jobs and Kafka
+ * listeners) eager when {@code spring.main.lazy-initialization} is on.
+ */
+public class StartupLazyInitializationExcludeFilter implements LazyInitializationExcludeFilter {
+    private static final String KAFKA_LISTENER = "org.springframework.kafka.annotation.KafkaListener";
+
+    private final Class<? extends Annotation> kafkaListener = loadKafkaListener();
+
+    @Override
+    public boolean isExcluded(String beanName, BeanDefinition beanDefinition, Class<?> beanType) {
+        if (beanType == null || beanType.getName().startsWith("org.springframework.")) {
+            return false;
+        }
+        Set<Method> annotated = MethodIntrospector.selectMethods(beanType,
+                (MethodIntrospector.MetadataLookup<Boolean>) method -> isEagerTrigger(method) ? Boolean.TRUE : null)
+                .keySet();
+        return !annotated.isEmpty();
+    }
+
+    private boolean isEagerTrigger(Method method) {
+        return AnnotatedElementUtils.hasAnnotation(method, Scheduled.class)
+                || (kafkaListener != null && AnnotatedElementUtils.hasAnnotation(method, kafkaListener));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Class<? extends Annotation> loadKafkaListener() {
+        ClassLoader classLoader = StartupLazyInitializationExcludeFilter.class.getClassLoader();
+        if (!ClassUtils.isPresent(KAFKA_LISTENER, classLoader)) {
+            return null;
+        }
+        return (Class<? extends Annotation>) ClassUtils.resolveClassName(KAFKA_LISTENER, classLoader);
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.common.tracing;
+
+import java.util.Map;
+
+/**
+ * A finished span as written to the span file and served by {@link SpanStoreEndpoint}.
+ */
+public record LocalSpan(String traceId,
+                        String spanId,
+                        String parentSpanId,
+                        String service,
+                        String name,
+                        String kind,
+                        long startEpochMicros,
+                        long durationMicros,
+                        String status,
+                        Map<String, String> attributes) {
+}
@@ -0,0 +1,170 @@
+package com.example.common.tracing;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.SpanId;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Exporter for sampled spans that needs no tracing backend: spans are kept in a bounded
+ * in-memory buffer, optionally appended to a JSON-lines file, and their durations recorded
+ * in the {@code saga.stage.duration} histogram tagged by service and span name, which gives
+ * the per-stage latency breakdown (HTTP handling, repository calls, Kafka send and receive,
+ * provider calls). Called by OpenTelemetry's batch span processor, off the request path.
+ */
+@Slf4j
+public class LocalSpanExporter implements SpanExporter {
+    private static final AttributeKey<String> SERVICE_NAME = AttributeKey.stringKey("service.name");
+
+    private final MeterRegistry meterRegistry;
+    private final int bufferSize;
+    private final Deque<LocalSpan> recent;
+    private final Map<String, Timer> stageTimers = new ConcurrentHashMap<>();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final BufferedWriter writer;
+
+    public LocalSpanExporter(MeterRegistry meterRegistry, LocalTracingProperties properties) {
+        this.meterRegistry = meterRegistry;
+        this.bufferSize = properties.getBufferSize();
+        this.recent = new ArrayDeque<>(bufferSize);
+        this.writer = openWriter(properties.getFile());
+    }
+
+    @Override
+    public CompletableResultCode export(Collection<SpanData> spans) {
+        for (SpanData span : spans) {
+            LocalSpan local = toLocalSpan(span);
+            stageTimer(local.service(), local.name()).record(local.durationMicros(), TimeUnit.MICROSECONDS);
+            synchronized (recent) {
+                if (recent.size() == bufferSize) {
+                    recent.removeFirst();
+                }
+                recent.addLast(local);
+            }
+            write(local);
+        }
+        return flush();
+    }
+
+    /**
+     * Most recent spans, oldest first; only those of {@code traceId} when it is given.
+     */
+    public List<LocalSpan> recentSpans(String traceId) {
+        synchronized (recent) {
+            List<LocalSpan> spans = new ArrayList<>();
+            for (LocalSpan span : recent) {
+                if (traceId == null || traceId.equals(span.traceId())) {
+                    spans.add(span);
+                }
+            }
+            return spans;
+        }
+    }
+
+    @Override
+    public synchronized CompletableResultCode flush() {
+        if (writer != null) {
+            try {
+                writer.flush();
+            } catch (IOException e) {
+                log.debug("Failed to flush span file", e);
+                return CompletableResultCode.ofFailure();
+            }
+        }
+        return CompletableResultCode.ofSuccess();
+    }
+
+    @Override
+    public synchronized CompletableResultCode shutdown() {
+        if (writer != null) {
+            try {
+                writer.close();
+            } catch (IOException e) {
+                log.debug("Failed to close span file", e);
+            }
+        }
+        return CompletableResultCode.ofSuccess();
+    }
+
+    private synchronized void write(LocalSpan span) {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.write(objectMapper.writeValueAsString(span));
+            writer.newLine();
+        } catch (JsonProcessingException e) {
+            log.debug("Failed to serialise span {}", span.spanId(), e);
+        } catch (IOException e) {
+            log.debug("Failed to write span {}", span.spanId(), e);
+        }
+    }
+
+    private Timer stageTimer(String service, String stage) {
+        return stageTimers.computeIfAbsent(service + '\0' + stage, key -> Timer.builder("saga.stage.duration")
+                .description("Duration of sampled spans, by service and stage")
+                .tag("service", service)
+                .tag("stage", stage)
+                .publishPercentileHistogram()
+                .maximumExpectedValue(Duration.ofSeconds(30))
+                .register(meterRegistry));
+    }
+
+    private static LocalSpan toLocalSpan(SpanData span) {
+        Map<String, String> attributes = new LinkedHashMap<>();
+        span.getAttributes().forEach((key, value) -> attributes.put(key.getKey(), String.valueOf(value)));
+        String service = span.getResource().getAttribute(SERVICE_NAME);
+        String parent = span.getParentSpanId();
+        return new LocalSpan(
+                span.getTraceId(),
+                span.getSpanId(),
+                SpanId.isValid(parent) ? parent : null,
+                service != null ? service : "unknown",
+                span.getName(),
+                span.getKind().name(),
+                TimeUnit.NANOSECONDS.toMicros(span.getStartEpochNanos()),
+                TimeUnit.NANOSECONDS.toMicros(span.getEndEpochNanos() - span.getStartEpochNanos()),
+                span.getStatus().getStatusCode().name(),
+                attributes);
+    }
+
+    private static BufferedWriter openWriter(String file) {
+        if (file == null || file.isBlank()) {
+            return null;
+        }
+        try {
+            Path path = Path.of(file);
+            if (path.toAbsolutePath().getParent() != null) {
+                Files.createDirectories(path.toAbsolutePath().getParent());
+            }
+            return Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            log.warn("Cannot open span file {}, keeping spans in memory only", file, e);
+            return null;
+        }
+    }
+}
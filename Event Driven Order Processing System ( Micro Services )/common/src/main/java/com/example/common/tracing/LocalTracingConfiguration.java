@@ -0,0 +1,50 @@
+package com.example.common.tracing;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Collects the services' OpenTelemetry spans in process. Spring Boot's tracing
+ * auto-configuration creates the spans (HTTP server, Kafka send and receive when
+ * observation is enabled on the template and listeners) and propagates W3C trace
+ * context through HTTP and Kafka headers; this adds repository spans and hands every
+ * sampled span to {@link LocalSpanExporter}.
+ */
+@AutoConfiguration
+@ConditionalOnClass(SpanExporter.class)
+@ConditionalOnProperty(name = "tracing.local.enabled", havingValue = "true", matchIfMissing = true)
+@EnableConfigurationProperties(LocalTracingProperties.class)
+public class LocalTracingConfiguration {
+
+    // Picked up by Spring Boot's OpenTelemetry batch span processor
+    @Bean
+    public LocalSpanExporter localSpanExporter(LocalTracingProperties properties,
+                                               ObjectProvider<MeterRegistry> meterRegistry) {
+        return new LocalSpanExporter(meterRegistry.getIfAvailable(SimpleMeterRegistry::new), properties);
+    }
+
+    @Bean
+    @ConditionalOnClass(name = "org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport")
+    public static BeanPostProcessor repositoryObservationPostProcessor(ObjectProvider<ObservationRegistry> observationRegistry) {
+        return new RepositoryObservationPostProcessor(observationRegistry);
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(name = "org.springframework.boot.actuate.endpoint.annotation.Endpoint")
+    static class SpanStoreEndpointConfiguration {
+        @Bean
+        public SpanStoreEndpoint spanStoreEndpoint(LocalSpanExporter localSpanExporter) {
+            return new SpanStoreEndpoint(localSpanExporter);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.common.tracing;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * In-process span collection. How many traces are recorded at all is set by
+ * {@code management.tracing.sampling.probability}.
+ */
+@Data
+@ConfigurationProperties(prefix = "tracing.local")
+public class LocalTracingProperties {
+    private boolean enabled = true;
+    /** JSON-lines file finished spans are appended to; none when unset. */
+    private String file;
+    /** Most recent spans kept in memory for the spans actuator endpoint. */
+    private int bufferSize = 10000;
+}
@@ -0,0 +1,30 @@
+package com.example.common.tracing;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+
+import java.util.List;
+
+/**
+ * {@code /actuator/spans} lists the most recent sampled spans; {@code /actuator/spans/{traceId}}
+ * the spans of one trace that this service recorded.
+ */
+@Endpoint(id = "spans")
+public class SpanStoreEndpoint {
+    private final LocalSpanExporter exporter;
+
+    public SpanStoreEndpoint(LocalSpanExporter exporter) {
+        this.exporter = exporter;
+    }
+
+    @ReadOperation
+    public List<LocalSpan> spans() {
+        return exporter.recentSpans(null);
+    }
+
+    @ReadOperation
+    public List<LocalSpan> trace(@Selector String traceId) {
+        return exporter.recentSpans(traceId);
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.common.sql;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.OneToMany;
+import jakarta.persistence.SequenceGenerator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Statement counts of repository calls, taken through the profiling proxy the services run with.
+ */
+@DataJpaTest(properties = {
+        "sql.profiling.slow-query-log=target/slow-queries.log",
+        "spring.jpa.properties.hibernate.jdbc.batch_size=50"
+})
+@ImportAutoConfiguration(SqlProfilingConfiguration.class)
+class SqlRequestScopeTest {
+    private static final int BASKETS = 10;
+
+    @Autowired
+    private BasketRepository basketRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @BeforeEach
+    void createBaskets() {
+        for (int i = 0; i < BASKETS; i++) {
+            Basket basket = entityManager.persist(new Basket());
+            entityManager.persist(new BasketLine(basket));
+            entityManager.persist(new BasketLine(basket));
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void lazyTraversalIsReportedAsRepeatedStatements() {
+        try (SqlRequestScope scope = SqlRequestScope.open("test")) {
+            int lines = basketRepository.findAll().stream().mapToInt(basket -> basket.lines.size()).sum();
+
+            assertThat(lines).isEqualTo(BASKETS * 2);
+            // One query for the baskets, then one per basket for its lines
+            assertThat(scope.statementCount()).isEqualTo(1 + BASKETS);
+            assertThat(scope.countsByShape().values()).contains(BASKETS);
+        }
+    }
+
+    @Test
+    void fetchJoinLoadsEverythingInOneStatement() {
+        try (SqlRequestScope scope = SqlRequestScope.open("test")) {
+            int lines = basketRepository.findAllWithLines().stream().mapToInt(basket -> basket.lines.size()).sum();
+
+            assertThat(lines).isEqualTo(BASKETS * 2);
+            assertThat(scope.statementCount()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void batchedInsertCountsAsOneRoundTrip() {
+        try (SqlRequestScope scope = SqlRequestScope.open("test")) {
+            List<Basket> baskets = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                baskets.add(new Basket());
+            }
+            basketRepository.saveAll(baskets);
+            entityManager.flush();
+
+            assertThat(scope.statementCount()).isEqualTo(1);
+            assertThat(scope.batchCount()).isEqualTo(1);
+            assertThat(scope.countsByShape()).isEmpty();
+        }
+    }
+
+    @SpringBootConfiguration
+    @EntityScan(basePackageClasses = SqlRequestScopeTest.class)
+    @EnableJpaRepositories(basePackageClasses = SqlRequestScopeTest.class, considerNestedRepositories = true)
+    static class Config {
+    }
+
+    interface BasketRepository extends JpaRepository<Basket, Long> {
+        @Query("SELECT DISTINCT b FROM SqlRequestScopeTest$Basket b LEFT JOIN FETCH b.lines")
+        List<Basket> findAllWithLines();
+    }
+
+    @Entity
+    static class Basket {
+        // One sequence fetch covers every basket the tests create, so none lands inside a scope
+        @Id
+        @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "basket_seq")
+        @SequenceGenerator(name = "basket_seq", allocationSize = 1000)
+        Long id;
+
+        @OneToMany(mappedBy = "basket", fetch = FetchType.LAZY)
+        List<BasketLine> lines = new ArrayList<>();
+    }
+
+    @Entity
+    static class BasketLine {
+        @Id
+        @GeneratedValue
+        Long id;
+
+        @ManyToOne(fetch = FetchType.LAZY)
+        Basket basket;
+
+        BasketLine() {
+        }
+
+        BasketLine(Basket basket) {
+            this.basket = basket;
+        }
+    }
+}
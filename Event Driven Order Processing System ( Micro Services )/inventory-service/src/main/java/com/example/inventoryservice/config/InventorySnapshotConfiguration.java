@@ -0,0 +1,48 @@
+package com.example.inventoryservice.config;
+
+import com.example.common.kafka.CompactedTopicView;
+import com.example.inventoryservice.event.InventorySnapshot;
+import com.example.inventoryservice.service.InventorySnapshotPublisher;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.config.TopicConfig;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.util.Map;
+
+@Configuration
+public class InventorySnapshotConfiguration {
+
+    @Bean
+    public NewTopic inventorySnapshotTopic(@Value("${inventory.snapshot.partitions:6}") int partitions) {
+        return TopicBuilder.name(InventorySnapshotPublisher.SNAPSHOT_TOPIC)
+                .partitions(partitions)
+                .replicas(1)
+                .compact()
+                // Roll segments hourly so the cleaner can compact recent history too
+                .config(TopicConfig.SEGMENT_MS_CONFIG, "3600000")
+                .config(TopicConfig.MIN_CLEANABLE_DIRTY_RATIO_CONFIG, "0.1")
+                .build();
+    }
+
+    /**
+     * This instance's warm copy of every product's stock, bootstrapped from the snapshot
+     * topic at startup instead of from inventory_items.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "inventory.snapshot.view.enabled", havingValue = "true", matchIfMissing = true)
+    public CompactedTopicView<InventorySnapshot> inventorySnapshotView(KafkaProperties kafkaProperties) {
+        JsonDeserializer<InventorySnapshot> deserializer = new JsonDeserializer<>(InventorySnapshot.class, false);
+        deserializer.ignoreTypeHeaders();
+        return new CompactedTopicView<>(InventorySnapshotPublisher.SNAPSHOT_TOPIC,
+                Map.of(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, String.join(",", kafkaProperties.getBootstrapServers())),
+                deserializer,
+                snapshot -> snapshot.getVersion() == null ? -1 : snapshot.getVersion());
+    }
+}
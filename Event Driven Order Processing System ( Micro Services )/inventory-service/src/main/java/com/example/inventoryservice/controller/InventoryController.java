@@ -1,13 +1,20 @@
 package com.example.inventoryservice.controller;
 
+import com.example.inventoryservice.event.InventorySnapshot;
+import com.example.inventoryservice.importer.ImportLineReader;
+import com.example.inventoryservice.importer.InventoryImportResult;
+import com.example.inventoryservice.importer.InventoryImportService;
 import com.example.inventoryservice.model.InventoryItem;
 import com.example.inventoryservice.model.InventoryReservation;
 import com.example.inventoryservice.service.InventoryService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.util.Map;
 
 @RestController
@@ -15,6 +22,8 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class InventoryController {
     private final InventoryService inventoryService;
+    private final InventoryImportService inventoryImportService;
+    private final ObjectMapper objectMapper;
     
     @PostMapping("/reserve")
     public ResponseEntity<InventoryReservation> reserveInventory(
@@ -36,17 +45,34 @@ public class InventoryController {
         return ResponseEntity.ok().build();
     }
     
+    /**
+     * Streams the request body straight into the import, so the feed is never buffered.
+     */
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<InventoryImportResult> importInventory(HttpServletRequest request) throws IOException {
+        ImportLineReader reader = request.getContentType().startsWith("text/csv")
+                ? ImportLineReader.csv(request.getInputStream())
+                : ImportLineReader.ndjson(request.getInputStream(), objectMapper);
+        return ResponseEntity.ok(inventoryImportService.importInventory(reader));
+    }
+    
     @GetMapping("/{productId}")
     public ResponseEntity<InventoryItem> getInventoryItem(@PathVariable String productId) {
         InventoryItem item = inventoryService.getInventoryItem(productId);
         return ResponseEntity.ok(item);
     }
     
+    @GetMapping("/{productId}/availability")
+    public ResponseEntity<InventorySnapshot> getAvailability(@PathVariable String productId) {
+        return ResponseEntity.ok(inventoryService.getAvailability(productId));
+    }
+    
     @PutMapping("/{productId}")
     public ResponseEntity<InventoryItem> updateInventory(
             @PathVariable String productId,
-            @RequestParam Integer quantity) {
-        InventoryItem item = inventoryService.updateInventory(productId, quantity);
+            @RequestParam Integer quantity,
+            @RequestParam(required = false) Integer reorderPoint) {
+        InventoryItem item = inventoryService.updateInventory(productId, quantity, reorderPoint);
         return ResponseEntity.ok(item);
     }
 } 
\ No newline at end of file
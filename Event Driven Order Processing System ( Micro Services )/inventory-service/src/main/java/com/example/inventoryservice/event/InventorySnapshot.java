@@ -0,0 +1,26 @@
+package com.example.inventoryservice.event;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Latest stock of one product, keyed by product id on the compacted inventory-snapshots topic.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventorySnapshot {
+    private String productId;
+    private Integer quantity;
+    private Integer reservedQuantity;
+    private Long version;
+
+    @JsonIgnore
+    public int getAvailableQuantity() {
+        return quantity - reservedQuantity;
+    }
+}
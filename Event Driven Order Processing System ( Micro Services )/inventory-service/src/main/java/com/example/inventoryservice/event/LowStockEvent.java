@@ -0,0 +1,21 @@
+package com.example.inventoryservice.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LowStockEvent {
+    private String productId;
+    private Integer quantity;
+    private Integer reservedQuantity;
+    private Integer availableQuantity;
+    private Integer reorderPoint;
+    private LocalDateTime timestamp;
+}
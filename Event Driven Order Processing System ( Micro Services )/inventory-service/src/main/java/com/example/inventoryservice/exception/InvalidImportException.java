@@ -0,0 +1,15 @@
+package com.example.inventoryservice.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidImportException extends RuntimeException {
+    public InvalidImportException(long line, String reason) {
+        super("Import line " + line + ": " + reason);
+    }
+
+    public InvalidImportException(String reason, Throwable cause) {
+        super(reason, cause);
+    }
+}
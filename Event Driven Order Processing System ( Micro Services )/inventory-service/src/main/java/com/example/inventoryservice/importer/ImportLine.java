@@ -0,0 +1,7 @@
+package com.example.inventoryservice.importer;
+
+/**
+ * One product of an import feed. A null reorder point leaves the item's current one.
+ */
+public record ImportLine(String productId, int quantity, Integer reorderPoint) {
+}
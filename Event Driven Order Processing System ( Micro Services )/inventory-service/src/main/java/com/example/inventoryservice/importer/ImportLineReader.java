@@ -0,0 +1,152 @@
+package com.example.inventoryservice.importer;
+
+import com.example.inventoryservice.exception.InvalidImportException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Pulls {@link ImportLine}s one at a time from a CSV ({@code productId,quantity[,reorderPoint]},
+ * optional header) or NDJSON ({@code {"productId":..,"quantity":..,"reorderPoint":..}}) stream,
+ * so a feed of any size is never held in memory.
+ */
+public abstract class ImportLineReader {
+    static final int MAX_PRODUCT_ID_LENGTH = 255;
+
+    protected long lineNumber;
+
+    /**
+     * The next line, or null at the end of the stream.
+     */
+    public abstract ImportLine next();
+
+    public long lineNumber() {
+        return lineNumber;
+    }
+
+    public static ImportLineReader csv(InputStream in) {
+        return new CsvReader(in);
+    }
+
+    public static ImportLineReader ndjson(InputStream in, ObjectMapper objectMapper) {
+        return new NdjsonReader(in, objectMapper);
+    }
+
+    protected ImportLine validate(String productId, Integer quantity, Integer reorderPoint) {
+        if (productId == null || productId.isBlank() || productId.length() > MAX_PRODUCT_ID_LENGTH) {
+            throw new InvalidImportException(lineNumber, "productId must be 1 to " + MAX_PRODUCT_ID_LENGTH + " characters");
+        }
+        if (quantity == null || quantity < 0) {
+            throw new InvalidImportException(lineNumber, "quantity must be a non-negative integer");
+        }
+        if (reorderPoint != null && reorderPoint < 0) {
+            throw new InvalidImportException(lineNumber, "reorderPoint must be a non-negative integer");
+        }
+        return new ImportLine(productId, quantity, reorderPoint);
+    }
+
+    private static final class CsvReader extends ImportLineReader {
+        private final BufferedReader reader;
+
+        private CsvReader(InputStream in) {
+            this.reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 64 * 1024);
+        }
+
+        @Override
+        public ImportLine next() {
+            try {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    lineNumber++;
+                    if (line.isBlank() || (lineNumber == 1 && isHeader(line))) {
+                        continue;
+                    }
+                    String[] fields = line.split(",", -1);
+                    if (fields.length < 2 || fields.length > 3) {
+                        throw new InvalidImportException(lineNumber, "expected productId,quantity[,reorderPoint]");
+                    }
+                    return validate(unquote(fields[0].trim()), parseInt(fields[1]),
+                            fields.length == 3 && !fields[2].isBlank() ? parseInt(fields[2]) : null);
+                }
+                return null;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private Integer parseInt(String field) {
+            try {
+                return Integer.parseInt(field.trim());
+            } catch (NumberFormatException e) {
+                throw new InvalidImportException(lineNumber, "'" + field.trim() + "' is not an integer");
+            }
+        }
+
+        private static boolean isHeader(String line) {
+            String first = line.split(",", 2)[0].trim().toLowerCase();
+            return first.equals("productid") || first.equals("product_id");
+        }
+
+        private static String unquote(String field) {
+            return field.length() >= 2 && field.startsWith("\"") && field.endsWith("\"")
+                    ? field.substring(1, field.length() - 1).replace("\"\"", "\"")
+                    : field;
+        }
+    }
+
+    private static final class NdjsonReader extends ImportLineReader {
+        private final JsonParser parser;
+
+        private NdjsonReader(InputStream in, ObjectMapper objectMapper) {
+            try {
+                this.parser = objectMapper.getFactory().createParser(in);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public ImportLine next() {
+            try {
+                JsonToken token = parser.nextToken();
+                if (token == null) {
+                    return null;
+                }
+                lineNumber++;
+                if (token != JsonToken.START_OBJECT) {
+                    throw new InvalidImportException(lineNumber, "expected a JSON object");
+                }
+                JsonNode node = parser.readValueAsTree();
+                return validate(text(node, "productId"), integer(node, "quantity"), integer(node, "reorderPoint"));
+            } catch (InvalidImportException e) {
+                throw e;
+            } catch (IOException e) {
+                throw new InvalidImportException("Malformed JSON after line " + lineNumber, e);
+            }
+        }
+
+        private static String text(JsonNode node, String field) {
+            JsonNode value = node.get(field);
+            return value == null || value.isNull() ? null : value.asText();
+        }
+
+        private Integer integer(JsonNode node, String field) {
+            JsonNode value = node.get(field);
+            if (value == null || value.isNull()) {
+                return null;
+            }
+            if (!value.canConvertToInt() || !value.isIntegralNumber()) {
+                throw new InvalidImportException(lineNumber, field + " must be an integer");
+            }
+            return value.intValue();
+        }
+    }
+}
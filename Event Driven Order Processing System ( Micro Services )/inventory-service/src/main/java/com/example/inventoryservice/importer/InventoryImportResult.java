@@ -0,0 +1,4 @@
+package com.example.inventoryservice.importer;
+
+public record InventoryImportResult(long lines, long products, long durationMs, long linesPerSecond) {
+}
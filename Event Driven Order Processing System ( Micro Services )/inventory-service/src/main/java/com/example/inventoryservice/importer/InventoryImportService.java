@@ -0,0 +1,280 @@
+package com.example.inventoryservice.importer;
+
+import com.example.inventoryservice.model.InventoryItem;
+import com.example.inventoryservice.repository.InventoryItemRepository;
+import com.example.inventoryservice.service.InventorySnapshotPublisher;
+import com.example.inventoryservice.service.LowStockDetector;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bulk stock import. The feed is streamed line by line into a transaction-scoped staging
+ * table, with PostgreSQL COPY or, on other databases, large JDBC batches, and then applied
+ * to inventory_items with a single set-based upsert: quantity and reorder point come from
+ * the feed (the last line wins for a repeated product), reserved_quantity is left alone and
+ * version is bumped, so in-flight reservations and optimistic locking keep working.
+ * <p>
+ * After commit the touched products are evicted from the cache (or the whole cache is
+ * cleared for large imports), and their snapshots and low-stock checks are propagated in
+ * the background.
+ */
+@Service
+@Slf4j
+public class InventoryImportService {
+    private static final String INVENTORY_CACHE = "inventory";
+    private static final String STAGING_TABLE = "inventory_import";
+    private static final int COPY_CHUNK_BYTES = 256 * 1024;
+
+    private static final String POSTGRES_UPSERT = """
+            INSERT INTO inventory_items (product_id, quantity, reserved_quantity, reorder_point, version, created_at, updated_at)
+            SELECT DISTINCT ON (product_id) product_id, quantity, 0, reorder_point, 0, ?, ?
+            FROM inventory_import
+            ORDER BY product_id, line DESC
+            ON CONFLICT (product_id) DO UPDATE SET
+                quantity = EXCLUDED.quantity,
+                reorder_point = COALESCE(EXCLUDED.reorder_point, inventory_items.reorder_point),
+                version = inventory_items.version + 1,
+                updated_at = EXCLUDED.updated_at
+            """;
+
+    private static final String MERGE_UPSERT = """
+            MERGE INTO inventory_items t
+            USING (SELECT s.product_id, s.quantity, s.reorder_point FROM inventory_import s
+                   WHERE s.line = (SELECT MAX(l.line) FROM inventory_import l WHERE l.product_id = s.product_id)) src
+            ON t.product_id = src.product_id
+            WHEN MATCHED THEN UPDATE SET
+                quantity = src.quantity,
+                reorder_point = COALESCE(src.reorder_point, t.reorder_point),
+                version = t.version + 1,
+                updated_at = ?
+            WHEN NOT MATCHED THEN INSERT (product_id, quantity, reserved_quantity, reorder_point, version, created_at, updated_at)
+                VALUES (src.product_id, src.quantity, 0, src.reorder_point, 0, ?, ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final CacheManager cacheManager;
+    private final InventoryItemRepository inventoryItemRepository;
+    private final InventorySnapshotPublisher snapshotPublisher;
+    private final LowStockDetector lowStockDetector;
+    private final int batchSize;
+    private final int evictThreshold;
+    private final ExecutorService propagation = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "inventory-import-propagation");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public InventoryImportService(DataSource dataSource,
+                                  PlatformTransactionManager transactionManager,
+                                  CacheManager cacheManager,
+                                  InventoryItemRepository inventoryItemRepository,
+                                  InventorySnapshotPublisher snapshotPublisher,
+                                  LowStockDetector lowStockDetector,
+                                  @Value("${inventory.import.batch-size:10000}") int batchSize,
+                                  @Value("${inventory.import.evict-threshold:10000}") int evictThreshold) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.cacheManager = cacheManager;
+        this.inventoryItemRepository = inventoryItemRepository;
+        this.snapshotPublisher = snapshotPublisher;
+        this.lowStockDetector = lowStockDetector;
+        this.batchSize = batchSize;
+        this.evictThreshold = evictThreshold;
+    }
+
+    public InventoryImportResult importInventory(ImportLineReader reader) {
+        long started = System.nanoTime();
+        // Truncated to what the database stores, so the propagation pass can find these rows again
+        LocalDateTime importedAt = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+
+        long[] counts = transactionTemplate.execute(status -> jdbcTemplate.execute((ConnectionCallback<long[]>) connection -> {
+            boolean postgres = connection.isWrapperFor(PGConnection.class);
+            long lines = postgres ? copyIntoStaging(connection, reader) : batchIntoStaging(connection, reader);
+            long products = postgres ? upsertPostgres(connection, importedAt) : upsertMerge(connection, importedAt);
+            List<String> touched = products <= evictThreshold
+                    ? jdbcTemplate.queryForList("SELECT DISTINCT product_id FROM " + STAGING_TABLE, String.class)
+                    : null;
+            if (!postgres) {
+                // Only the PostgreSQL staging table is dropped on commit
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("DROP TABLE " + STAGING_TABLE);
+                }
+            }
+            invalidateAfterCommit(touched);
+            return new long[]{lines, products};
+        }));
+
+        propagation.execute(() -> propagateChangesSince(importedAt));
+
+        long durationMs = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        InventoryImportResult result = new InventoryImportResult(counts[0], counts[1], durationMs, counts[0] * 1000 / durationMs);
+        log.info("Imported {} lines for {} products in {} ms ({} lines/s)",
+                result.lines(), result.products(), result.durationMs(), result.linesPerSecond());
+        return result;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        propagation.shutdown();
+    }
+
+    private long copyIntoStaging(Connection connection, ImportLineReader reader) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TEMP TABLE " + STAGING_TABLE
+                    + " (line BIGINT, product_id VARCHAR(255), quantity INT, reorder_point INT) ON COMMIT DROP");
+        }
+        CopyIn copy = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(
+                "COPY " + STAGING_TABLE + " (line, product_id, quantity, reorder_point) FROM STDIN WITH (FORMAT csv)");
+        long lines = 0;
+        try {
+            StringBuilder chunk = new StringBuilder(COPY_CHUNK_BYTES + 512);
+            ImportLine line;
+            while ((line = reader.next()) != null) {
+                chunk.append(reader.lineNumber()).append(",\"")
+                        .append(line.productId().replace("\"", "\"\"")).append("\",")
+                        .append(line.quantity()).append(',');
+                if (line.reorderPoint() != null) {
+                    chunk.append(line.reorderPoint());
+                }
+                chunk.append('\n');
+                lines++;
+                if (chunk.length() >= COPY_CHUNK_BYTES) {
+                    writeChunk(copy, chunk);
+                }
+            }
+            writeChunk(copy, chunk);
+            copy.endCopy();
+        } catch (RuntimeException | SQLException e) {
+            if (copy.isActive()) {
+                copy.cancelCopy();
+            }
+            throw e;
+        }
+        try (Statement statement = connection.createStatement()) {
+            // Fresh statistics so the upsert plans for the real row count
+            statement.execute("ANALYZE " + STAGING_TABLE);
+        }
+        return lines;
+    }
+
+    private static void writeChunk(CopyIn copy, StringBuilder chunk) throws SQLException {
+        byte[] bytes = chunk.toString().getBytes(StandardCharsets.UTF_8);
+        copy.writeToCopy(bytes, 0, bytes.length);
+        chunk.setLength(0);
+    }
+
+    private long batchIntoStaging(Connection connection, ImportLineReader reader) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            // A failed import can leave the table behind on this pooled connection
+            statement.execute("DROP TABLE IF EXISTS " + STAGING_TABLE);
+            statement.execute("CREATE LOCAL TEMPORARY TABLE " + STAGING_TABLE
+                    + " (line BIGINT, product_id VARCHAR(255), quantity INT, reorder_point INT) TRANSACTIONAL");
+            statement.execute("CREATE INDEX " + STAGING_TABLE + "_product ON " + STAGING_TABLE + " (product_id, line)");
+        }
+        long lines = 0;
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO " + STAGING_TABLE
+                + " (line, product_id, quantity, reorder_point) VALUES (?, ?, ?, ?)")) {
+            ImportLine line;
+            while ((line = reader.next()) != null) {
+                insert.setLong(1, reader.lineNumber());
+                insert.setString(2, line.productId());
+                insert.setInt(3, line.quantity());
+                if (line.reorderPoint() != null) {
+                    insert.setInt(4, line.reorderPoint());
+                } else {
+                    insert.setNull(4, Types.INTEGER);
+                }
+                insert.addBatch();
+                if (++lines % batchSize == 0) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+        return lines;
+    }
+
+    private long upsertPostgres(Connection connection, LocalDateTime importedAt) throws SQLException {
+        try (PreparedStatement upsert = connection.prepareStatement(POSTGRES_UPSERT)) {
+            Timestamp timestamp = Timestamp.valueOf(importedAt);
+            upsert.setTimestamp(1, timestamp);
+            upsert.setTimestamp(2, timestamp);
+            return upsert.executeLargeUpdate();
+        }
+    }
+
+    private long upsertMerge(Connection connection, LocalDateTime importedAt) throws SQLException {
+        try (PreparedStatement merge = connection.prepareStatement(MERGE_UPSERT)) {
+            Timestamp timestamp = Timestamp.valueOf(importedAt);
+            merge.setTimestamp(1, timestamp);
+            merge.setTimestamp(2, timestamp);
+            merge.setTimestamp(3, timestamp);
+            return merge.executeLargeUpdate();
+        }
+    }
+
+    private void invalidateAfterCommit(List<String> touchedProductIds) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                Cache cache = cacheManager.getCache(INVENTORY_CACHE);
+                if (cache == null) {
+                    return;
+                }
+                if (touchedProductIds == null) {
+                    cache.clear();
+                } else {
+                    touchedProductIds.forEach(cache::evict);
+                }
+            }
+        });
+    }
+
+    /**
+     * Publishes snapshots and runs low-stock checks for every row the import changed,
+     * paging through inventory_items by id rather than holding the changed rows in memory.
+     */
+    private void propagateChangesSince(LocalDateTime importedAt) {
+        try {
+            long lastId = 0;
+            List<InventoryItem> page;
+            do {
+                page = inventoryItemRepository.findTop1000ByIdGreaterThanAndUpdatedAtGreaterThanEqualOrderByIdAsc(
+                        lastId, importedAt);
+                snapshotPublisher.onStockChanged(page);
+                lowStockDetector.onStockChanged(page);
+                lastId = page.isEmpty() ? lastId : page.get(page.size() - 1).getId();
+            } while (!page.isEmpty());
+        } catch (RuntimeException e) {
+            log.error("Failed to propagate imported stock changes", e);
+        }
+    }
+}
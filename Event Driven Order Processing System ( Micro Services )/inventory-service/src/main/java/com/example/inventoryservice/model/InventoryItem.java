@@ -25,6 +25,9 @@ public class InventoryItem {
     private Integer quantity;
     private Integer reservedQuantity;
     
+    // Available quantity at or below which a LowStockEvent is raised; null uses the service default
+    private Integer reorderPoint;
+    
     @Version
     private Long version;
     
@@ -7,6 +7,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import jakarta.persistence.LockModeType;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,4 +18,8 @@ public interface InventoryItemRepository extends JpaRepository<InventoryItem, Lo
     
     @Query("SELECT i FROM InventoryItem i WHERE i.productId IN :productIds")
     List<InventoryItem> findByProductIds(List<String> productIds);
+    
+    List<InventoryItem> findTop1000ByIdGreaterThanOrderByIdAsc(Long id);
+    
+    List<InventoryItem> findTop1000ByIdGreaterThanAndUpdatedAtGreaterThanEqualOrderByIdAsc(Long id, LocalDateTime updatedAt);
 } 
\ No newline at end of file
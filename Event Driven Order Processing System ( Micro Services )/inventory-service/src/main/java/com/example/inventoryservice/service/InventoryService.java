@@ -1,6 +1,9 @@
 package com.example.inventoryservice.service;
 
+import com.example.common.jdbc.ReadFromPrimary;
+import com.example.common.kafka.CompactedTopicView;
 import com.example.inventoryservice.event.InventoryEvent;
+import com.example.inventoryservice.event.InventorySnapshot;
 import com.example.inventoryservice.model.InventoryItem;
 import com.example.inventoryservice.model.InventoryReservation;
 import com.example.inventoryservice.model.ReservationStatus;
@@ -8,6 +11,7 @@ import com.example.inventoryservice.repository.InventoryItemRepository;
 import com.example.inventoryservice.repository.InventoryReservationRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.kafka.core.KafkaTemplate;
@@ -18,6 +22,7 @@ import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
@@ -27,6 +32,9 @@ public class InventoryService {
     private final InventoryItemRepository inventoryItemRepository;
     private final InventoryReservationRepository reservationRepository;
     private final KafkaTemplate<String, InventoryEvent> kafkaTemplate;
+    private final LowStockDetector lowStockDetector;
+    private final InventorySnapshotPublisher snapshotPublisher;
+    private final ObjectProvider<CompactedTopicView<InventorySnapshot>> snapshotView;
     
     private static final String INVENTORY_TOPIC = "inventory-events";
     
@@ -51,6 +59,8 @@ public class InventoryService {
                         productQuantities.get(item.getProductId()));
                 inventoryItemRepository.save(item);
             });
+            lowStockDetector.onStockChanged(items);
+            snapshotPublisher.onStockChanged(items);
         }
         
         reservation = reservationRepository.save(reservation);
@@ -80,6 +90,9 @@ public class InventoryService {
             
             item.setReservedQuantity(item.getReservedQuantity() - reservation.getQuantity());
             inventoryItemRepository.save(item);
+            // Released stock may lift the product back above its reorder point
+            lowStockDetector.onStockChanged(List.of(item));
+            snapshotPublisher.onStockChanged(List.of(item));
         }
         
         reservation.setStatus(ReservationStatus.CANCELLED);
@@ -87,16 +100,48 @@ public class InventoryService {
     }
     
     @Cacheable(value = "inventory", key = "#productId")
+    @ReadFromPrimary
+    @Transactional(readOnly = true)
     public InventoryItem getInventoryItem(String productId) {
         return inventoryItemRepository.findByProductId(productId)
                 .orElseThrow(() -> new RuntimeException("Inventory item not found"));
     }
     
     @CacheEvict(value = "inventory", key = "#productId")
-    public InventoryItem updateInventory(String productId, Integer quantity) {
+    public InventoryItem updateInventory(String productId, Integer quantity, Integer reorderPoint) {
         InventoryItem item = getInventoryItem(productId);
         item.setQuantity(quantity);
-        return inventoryItemRepository.save(item);
+        if (reorderPoint != null) {
+            item.setReorderPoint(reorderPoint);
+        }
+        InventoryItem saved = inventoryItemRepository.save(item);
+        lowStockDetector.onStockChanged(List.of(saved));
+        snapshotPublisher.onStockChanged(List.of(saved));
+        return saved;
+    }
+    
+    /**
+     * Stock as last published to the snapshot topic, from this instance's in-memory view;
+     * falls back to the database while the view is bootstrapping or rebuilding, and for
+     * unknown products.
+     */
+    public InventorySnapshot getAvailability(String productId) {
+        CompactedTopicView<InventorySnapshot> view = snapshotView.getIfAvailable();
+        if (view != null && view.isHealthy()) {
+            Optional<InventorySnapshot> snapshot = view.get(productId);
+            if (snapshot.isPresent()) {
+                return snapshot.get();
+            }
+        }
+        InventoryItem item = inventoryItemRepository.findByProductIds(List.of(productId)).stream()
+                .findFirst()
+                .orElseThrow(() -> new RuntimeException("Inventory item not found"));
+        return InventorySnapshot.builder()
+                .productId(item.getProductId())
+                .quantity(item.getQuantity())
+                .reservedQuantity(item.getReservedQuantity())
+                .version(item.getVersion())
+                .build();
     }
     
     private InventoryReservation getReservation(Long orderId) {
@@ -122,6 +167,8 @@ public class InventoryService {
             
             item.setReservedQuantity(item.getReservedQuantity() - reservation.getQuantity());
             inventoryItemRepository.save(item);
+            lowStockDetector.onStockChanged(List.of(item));
+            snapshotPublisher.onStockChanged(List.of(item));
         });
     }
     
@@ -0,0 +1,143 @@
+package com.example.inventoryservice.service;
+
+import com.example.inventoryservice.event.InventorySnapshot;
+import com.example.inventoryservice.model.InventoryItem;
+import com.example.inventoryservice.repository.InventoryItemRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes the latest stock of each changed product to the log-compacted
+ * inventory-snapshots topic. Changes are coalesced per product and flushed every
+ * flush interval, so a hot product costs one record per interval however often it sells.
+ * Snapshots are taken after commit, when the entity carries its new version.
+ */
+@Service
+@Slf4j
+public class InventorySnapshotPublisher {
+    public static final String SNAPSHOT_TOPIC = "inventory-snapshots";
+
+    private final KafkaTemplate<String, InventorySnapshot> kafkaTemplate;
+    private final InventoryItemRepository inventoryItemRepository;
+    private final boolean republishOnStartup;
+    private final Map<String, InventorySnapshot> pending = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService flusher;
+
+    public InventorySnapshotPublisher(KafkaTemplate<String, InventorySnapshot> kafkaTemplate,
+                                      InventoryItemRepository inventoryItemRepository,
+                                      @Value("${inventory.snapshot.flush-interval-ms:100}") long flushIntervalMs,
+                                      @Value("${inventory.snapshot.republish-on-startup:false}") boolean republishOnStartup) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.inventoryItemRepository = inventoryItemRepository;
+        this.republishOnStartup = republishOnStartup;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "inventory-snapshot-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.flusher.scheduleWithFixedDelay(this::flush, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    public void onStockChanged(Collection<InventoryItem> items) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            List<InventoryItem> changed = List.copyOf(items);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    changed.forEach(InventorySnapshotPublisher.this::stage);
+                }
+            });
+        } else {
+            items.forEach(this::stage);
+        }
+    }
+
+    /**
+     * Seeds the topic with every item, e.g. the first time it is deployed. Pages by id so
+     * the table is read once without holding a long transaction.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void republishAll() {
+        if (!republishOnStartup) {
+            return;
+        }
+        long lastId = 0;
+        long published = 0;
+        List<InventoryItem> page;
+        do {
+            page = inventoryItemRepository.findTop1000ByIdGreaterThanOrderByIdAsc(lastId);
+            page.forEach(item -> send(createSnapshot(item)));
+            published += page.size();
+            lastId = page.isEmpty() ? lastId : page.get(page.size() - 1).getId();
+        } while (!page.isEmpty());
+        log.info("Republished {} inventory snapshots", published);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flusher.shutdown();
+        flush();
+    }
+
+    private void stage(InventoryItem item) {
+        InventorySnapshot snapshot = createSnapshot(item);
+        pending.merge(snapshot.getProductId(), snapshot, (current, next) ->
+                version(next) >= version(current) ? next : current);
+    }
+
+    private void flush() {
+        try {
+            int sent = 0;
+            for (String productId : pending.keySet()) {
+                InventorySnapshot snapshot = pending.remove(productId);
+                if (snapshot != null) {
+                    send(snapshot);
+                    sent++;
+                }
+            }
+            if (sent > 0) {
+                log.debug("Published {} inventory snapshots", sent);
+            }
+        } catch (RuntimeException e) {
+            log.error("Failed to publish inventory snapshots", e);
+        }
+    }
+
+    private void send(InventorySnapshot snapshot) {
+        kafkaTemplate.send(SNAPSHOT_TOPIC, snapshot.getProductId(), snapshot)
+                .exceptionally(e -> {
+                    // Stage it again unless a newer change is already waiting
+                    pending.merge(snapshot.getProductId(), snapshot, (current, failed) -> current);
+                    log.warn("Failed to publish snapshot for product {}, will retry", snapshot.getProductId(), e);
+                    return null;
+                });
+    }
+
+    private static long version(InventorySnapshot snapshot) {
+        return snapshot.getVersion() == null ? -1 : snapshot.getVersion();
+    }
+
+    private InventorySnapshot createSnapshot(InventoryItem item) {
+        return InventorySnapshot.builder()
+                .productId(item.getProductId())
+                .quantity(item.getQuantity())
+                .reservedQuantity(item.getReservedQuantity())
+                .version(item.getVersion())
+                .build();
+    }
+}
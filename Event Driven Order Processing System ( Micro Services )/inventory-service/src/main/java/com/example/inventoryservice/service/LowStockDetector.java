@@ -0,0 +1,176 @@
+package com.example.inventoryservice.service;
+
+import com.example.inventoryservice.event.LowStockEvent;
+import com.example.inventoryservice.model.InventoryItem;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checks reorder points for just the items a write has touched, instead of scanning the
+ * table. The write path pays one comparison per item; only items at or below their reorder
+ * point go further, and a product that stays low is signalled at most once per debounce
+ * interval. Signals are raised after commit and published to low-stock-events in batches
+ * by a background dispatcher, so Kafka latency never reaches the caller.
+ */
+@Service
+@Slf4j
+public class LowStockDetector {
+    private static final String LOW_STOCK_TOPIC = "low-stock-events";
+
+    private final KafkaTemplate<String, LowStockEvent> kafkaTemplate;
+    private final int defaultReorderPoint;
+    private final long debounceNanos;
+    private final int maxBatchSize;
+    private final long maxWaitNanos;
+    private final BlockingQueue<LowStockEvent> queue;
+    // Products currently below their reorder point, with the time they were last signalled
+    private final Map<String, Long> lastSignalled = new ConcurrentHashMap<>();
+    private final Thread dispatcher;
+    private volatile boolean running = true;
+
+    public LowStockDetector(KafkaTemplate<String, LowStockEvent> kafkaTemplate,
+                            @Value("${inventory.low-stock.default-reorder-point:10}") int defaultReorderPoint,
+                            @Value("${inventory.low-stock.debounce-ms:300000}") long debounceMs,
+                            @Value("${inventory.low-stock.batch-size:100}") int maxBatchSize,
+                            @Value("${inventory.low-stock.max-wait-ms:500}") long maxWaitMs,
+                            @Value("${inventory.low-stock.queue-capacity:10000}") int queueCapacity) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.defaultReorderPoint = defaultReorderPoint;
+        this.debounceNanos = TimeUnit.MILLISECONDS.toNanos(debounceMs);
+        this.maxBatchSize = maxBatchSize;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+        this.dispatcher = new Thread(this::dispatchLoop, "low-stock-dispatcher");
+        this.dispatcher.setDaemon(true);
+        this.dispatcher.start();
+    }
+
+    /**
+     * Evaluates the given items' reorder points. Inside a transaction the signal waits for
+     * commit, so a rolled-back reservation never raises one.
+     */
+    public void onStockChanged(Collection<InventoryItem> items) {
+        List<LowStockEvent> low = null;
+        for (InventoryItem item : items) {
+            int reorderPoint = item.getReorderPoint() == null ? defaultReorderPoint : item.getReorderPoint();
+            if (item.getAvailableQuantity() > reorderPoint) {
+                // Recovered (or never low): the next drop signals immediately
+                if (!lastSignalled.isEmpty()) {
+                    lastSignalled.remove(item.getProductId());
+                }
+                continue;
+            }
+            Long previous = lastSignalled.get(item.getProductId());
+            if (previous != null && System.nanoTime() - previous < debounceNanos) {
+                // Still low and signalled recently: the common case while a product stays low
+                continue;
+            }
+            if (low == null) {
+                low = new ArrayList<>();
+            }
+            low.add(createLowStockEvent(item, reorderPoint));
+        }
+        if (low == null) {
+            return;
+        }
+
+        List<LowStockEvent> signals = low;
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    signals.forEach(LowStockDetector.this::signal);
+                }
+            });
+        } else {
+            signals.forEach(this::signal);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        dispatcher.interrupt();
+    }
+
+    private void signal(LowStockEvent event) {
+        long now = System.nanoTime();
+        Long previous = lastSignalled.get(event.getProductId());
+        boolean due = previous == null
+                ? lastSignalled.putIfAbsent(event.getProductId(), now) == null
+                : now - previous >= debounceNanos && lastSignalled.replace(event.getProductId(), previous, now);
+        if (due && !queue.offer(event)) {
+            // Let the next write for this product retry rather than blocking the caller
+            lastSignalled.remove(event.getProductId(), now);
+            log.warn("Low-stock queue is full, dropped signal for product {}", event.getProductId());
+        }
+    }
+
+    private void dispatchLoop() {
+        while (running) {
+            try {
+                publish(nextBatch());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Failed to publish low-stock events", e);
+            }
+        }
+    }
+
+    private Collection<LowStockEvent> nextBatch() throws InterruptedException {
+        // Keyed by product so a batch carries only the latest state of each product
+        Map<String, LowStockEvent> batch = new LinkedHashMap<>();
+        LowStockEvent first = queue.take();
+        batch.put(first.getProductId(), first);
+        long deadline = System.nanoTime() + maxWaitNanos;
+        while (batch.size() < maxBatchSize) {
+            long remaining = deadline - System.nanoTime();
+            LowStockEvent next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+            if (next == null) {
+                break;
+            }
+            batch.put(next.getProductId(), next);
+        }
+        return batch.values();
+    }
+
+    private void publish(Collection<LowStockEvent> batch) {
+        // Sent back to back, so the producer ships the batch in as few requests as it can
+        batch.forEach(event -> kafkaTemplate.send(LOW_STOCK_TOPIC, event.getProductId(), event)
+                .exceptionally(e -> {
+                    lastSignalled.remove(event.getProductId());
+                    log.error("Failed to publish low-stock event for product {}", event.getProductId(), e);
+                    return null;
+                }));
+        log.debug("Published {} low-stock events", batch.size());
+    }
+
+    private LowStockEvent createLowStockEvent(InventoryItem item, int reorderPoint) {
+        return LowStockEvent.builder()
+                .productId(item.getProductId())
+                .quantity(item.getQuantity())
+                .reservedQuantity(item.getReservedQuantity())
+                .availableQuantity(item.getAvailableQuantity())
+                .reorderPoint(reorderPoint)
+                .timestamp(LocalDateTime.now())
+                .build();
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.inventoryservice.importer;
+
+import com.example.inventoryservice.service.InventorySnapshotPublisher;
+import com.example.inventoryservice.service.LowStockDetector;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Lines per second of {@link InventoryImportService#importInventory} for a CSV feed of new
+ * products and for the same feed again, when every line updates an existing item. Goes
+ * through the application's own (profiled) datasource, so on PostgreSQL it covers the COPY
+ * path. Needs a scratch PostgreSQL database; not part of the regular test run, run it with
+ * {@code mvn -pl inventory-service test -Dtest=InventoryImportBenchmark
+ * -Dsurefire.failIfNoSpecifiedTests=false -Dbenchmark.datasource.url=jdbc:postgresql://host:5432/db}.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=${benchmark.datasource.url:jdbc:postgresql://localhost:5432/inventorybench}",
+        "spring.datasource.username=${benchmark.datasource.username:postgres}",
+        "spring.datasource.password=${benchmark.datasource.password:postgres}",
+        "spring.cache.type=none",
+        "spring.kafka.listener.auto-startup=false",
+        "spring.kafka.admin.auto-create=false",
+        "inventory.snapshot.view.enabled=false",
+        "logging.level.com.example.inventoryservice=INFO"
+})
+class InventoryImportBenchmark {
+    private static final int WARMUP_LINES = 100_000;
+    private static final int MEASURED_LINES = 1_000_000;
+
+    @Autowired
+    private InventoryImportService importService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Propagation is measured separately; here it would only compete for the one database
+    @MockBean
+    private InventorySnapshotPublisher snapshotPublisher;
+
+    @MockBean
+    private LowStockDetector lowStockDetector;
+
+    @Test
+    void csvFeed() {
+        jdbcTemplate.update("DELETE FROM inventory_items WHERE product_id LIKE 'BENCH-%'");
+        run("warm-up", "BENCH-W-", WARMUP_LINES, false);
+        run("new products", "BENCH-", MEASURED_LINES, true);
+        run("existing products", "BENCH-", MEASURED_LINES, true);
+
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM inventory_items WHERE product_id LIKE 'BENCH-%' AND version = 1 AND quantity = reorder_point * 10",
+                Long.class)).isEqualTo(MEASURED_LINES);
+    }
+
+    private void run(String scenario, String prefix, int lines, boolean report) {
+        byte[] feed = csv(prefix, lines);
+        InventoryImportResult result = importService.importInventory(ImportLineReader.csv(new ByteArrayInputStream(feed)));
+        assertThat(result.lines()).isEqualTo(lines);
+        assertThat(result.products()).isEqualTo(lines);
+        if (report) {
+            System.out.printf("Inventory import, %s, %,d lines (%,d KB CSV): %,d ms, %,d lines/s%n",
+                    scenario, result.lines(), feed.length / 1024, result.durationMs(), result.linesPerSecond());
+        }
+    }
+
+    private static byte[] csv(String prefix, int lines) {
+        StringBuilder csv = new StringBuilder(lines * 24).append("productId,quantity,reorderPoint\n");
+        for (int i = 0; i < lines; i++) {
+            int reorderPoint = i % 50;
+            csv.append(prefix).append(i).append(',').append(reorderPoint * 10).append(',').append(reorderPoint).append('\n');
+        }
+        return csv.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.inventoryservice.importer;
+
+import com.example.inventoryservice.exception.InvalidImportException;
+import com.example.inventoryservice.model.InventoryItem;
+import com.example.inventoryservice.repository.InventoryItemRepository;
+import com.example.inventoryservice.service.InventorySnapshotPublisher;
+import com.example.inventoryservice.service.LowStockDetector;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+/**
+ * The staging and MERGE path of the bulk import, on an in-memory database. Runs outside a
+ * test transaction, since the import commits its own and propagates only what was committed.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import(InventoryImportService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class InventoryImportServiceTest {
+
+    @Autowired
+    private InventoryImportService importService;
+
+    @Autowired
+    private InventoryItemRepository inventoryItemRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @MockBean
+    private InventorySnapshotPublisher snapshotPublisher;
+
+    @MockBean
+    private LowStockDetector lowStockDetector;
+
+    @BeforeEach
+    void clear() {
+        inventoryItemRepository.deleteAll();
+        cacheManager.getCache("inventory").clear();
+    }
+
+    // Every test ends with a successful import; its propagation must not spill into the next test
+    @AfterEach
+    void awaitPropagation() {
+        // The last page is always empty, so it marks the end of the pass
+        verify(snapshotPublisher, timeout(5000).atLeastOnce()).onStockChanged(argThat(Collection::isEmpty));
+    }
+
+    @Test
+    void updatesExistingItemsAndInsertsNewOnes() {
+        InventoryItem existing = inventoryItemRepository.save(InventoryItem.builder()
+                .productId("PROD-001").quantity(100).reservedQuantity(30).reorderPoint(15).build());
+        long versionBefore = existing.getVersion();
+
+        InventoryImportResult result = importCsv("""
+                productId,quantity,reorderPoint
+                PROD-001,80
+                PROD-002,50,5
+                """);
+
+        assertThat(result.lines()).isEqualTo(2);
+        assertThat(result.products()).isEqualTo(2);
+        Map<String, InventoryItem> items = itemsByProductId();
+        InventoryItem updated = items.get("PROD-001");
+        assertThat(updated.getQuantity()).isEqualTo(80);
+        assertThat(updated.getReservedQuantity()).isEqualTo(30);
+        assertThat(updated.getReorderPoint()).isEqualTo(15);
+        assertThat(updated.getVersion()).isEqualTo(versionBefore + 1);
+        InventoryItem inserted = items.get("PROD-002");
+        assertThat(inserted.getQuantity()).isEqualTo(50);
+        assertThat(inserted.getReservedQuantity()).isZero();
+        assertThat(inserted.getReorderPoint()).isEqualTo(5);
+        assertThat(inserted.getVersion()).isZero();
+    }
+
+    @Test
+    void lastLineWinsForARepeatedProduct() {
+        InventoryImportResult result = importCsv("""
+                PROD-001,10,1
+                PROD-002,20
+                PROD-001,30
+                """);
+
+        assertThat(result.lines()).isEqualTo(3);
+        assertThat(result.products()).isEqualTo(2);
+        InventoryItem item = itemsByProductId().get("PROD-001");
+        assertThat(item.getQuantity()).isEqualTo(30);
+        assertThat(item.getReorderPoint()).isNull();
+    }
+
+    @Test
+    void evictsTouchedProductsAndPropagatesTheirChanges() {
+        inventoryItemRepository.save(InventoryItem.builder().productId("PROD-001").quantity(100).build());
+        inventoryItemRepository.save(InventoryItem.builder().productId("PROD-003").quantity(100).build());
+        Cache cache = cacheManager.getCache("inventory");
+        cache.put("PROD-001", "stale");
+        cache.put("PROD-003", "untouched");
+
+        importCsv("PROD-001,5\nPROD-002,7\n");
+
+        assertThat(cache.get("PROD-001")).isNull();
+        assertThat(cache.get("PROD-003")).isNotNull();
+        assertThat(propagatedProductIds()).containsExactlyInAnyOrder("PROD-001", "PROD-002");
+    }
+
+    @Test
+    void malformedLineRollsBackTheWholeImport() {
+        inventoryItemRepository.save(InventoryItem.builder().productId("PROD-001").quantity(100).build());
+
+        assertThatThrownBy(() -> importCsv("PROD-001,5\nPROD-002,-1\n"))
+                .isInstanceOf(InvalidImportException.class);
+
+        assertThat(itemsByProductId()).containsOnlyKeys("PROD-001");
+        assertThat(itemsByProductId().get("PROD-001").getQuantity()).isEqualTo(100);
+        // A staging table left behind on the pooled connection does not get in the next import's way
+        assertThat(importCsv("PROD-002,3\n").products()).isEqualTo(1);
+    }
+
+    private InventoryImportResult importCsv(String csv) {
+        return importService.importInventory(
+                ImportLineReader.csv(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8))));
+    }
+
+    private Map<String, InventoryItem> itemsByProductId() {
+        return inventoryItemRepository.findAll().stream()
+                .collect(Collectors.toMap(InventoryItem::getProductId, item -> item));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<String> propagatedProductIds() {
+        ArgumentCaptor<Collection<InventoryItem>> pages = ArgumentCaptor.forClass(Collection.class);
+        awaitPropagation();
+        verify(snapshotPublisher, atLeastOnce()).onStockChanged(pages.capture());
+        return pages.getAllValues().stream()
+                .flatMap(Collection::stream)
+                .map(InventoryItem::getProductId)
+                .collect(Collectors.toList());
+    }
+
+    @TestConfiguration
+    static class CacheConfiguration {
+        @Bean
+        CacheManager cacheManager() {
+            return new ConcurrentMapCacheManager("inventory");
+        }
+    }
+}
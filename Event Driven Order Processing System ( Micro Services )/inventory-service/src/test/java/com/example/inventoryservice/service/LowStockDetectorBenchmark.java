@@ -0,0 +1,78 @@
+package com.example.inventoryservice.service;
+
+import com.example.inventoryservice.event.LowStockEvent;
+import com.example.inventoryservice.model.InventoryItem;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Cost that {@link LowStockDetector#onStockChanged} adds to a reservation touching three
+ * products. Not part of the regular test run; run it with
+ * {@code mvn -pl inventory-service test -Dtest=LowStockDetectorBenchmark -Dsurefire.failIfNoSpecifiedTests=false}.
+ */
+class LowStockDetectorBenchmark {
+    private static final int WARMUP_CALLS = 2_000_000;
+    private static final int MEASURED_CALLS = 2_000_000;
+
+    private LowStockDetector detector;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void createDetector() {
+        KafkaTemplate<String, LowStockEvent> kafkaTemplate = mock(KafkaTemplate.class);
+        when(kafkaTemplate.send(anyString(), anyString(), any())).thenReturn(new CompletableFuture<>());
+        detector = new LowStockDetector(kafkaTemplate, 10, 300_000, 100, 500, 10_000);
+    }
+
+    @AfterEach
+    void shutdown() {
+        detector.shutdown();
+    }
+
+    @Test
+    void itemsAboveTheirReorderPoint() {
+        report("above reorder point", items(500));
+    }
+
+    @Test
+    void itemsLowAndAlreadySignalled() {
+        report("low, debounced", items(5));
+    }
+
+    private void report(String scenario, List<InventoryItem> items) {
+        run(items, WARMUP_CALLS);
+        long started = System.nanoTime();
+        run(items, MEASURED_CALLS);
+        double nanosPerCall = (double) (System.nanoTime() - started) / MEASURED_CALLS;
+        System.out.printf("LowStockDetector.onStockChanged, 3 items, %s: %.1f ns/call%n", scenario, nanosPerCall);
+    }
+
+    private void run(List<InventoryItem> items, int calls) {
+        for (int i = 0; i < calls; i++) {
+            detector.onStockChanged(items);
+        }
+    }
+
+    private static List<InventoryItem> items(int available) {
+        return List.of(item("PROD-001", available), item("PROD-002", available), item("PROD-003", available));
+    }
+
+    private static InventoryItem item(String productId, int available) {
+        return InventoryItem.builder()
+                .productId(productId)
+                .quantity(available + 20)
+                .reservedQuantity(20)
+                .reorderPoint(10)
+                .build();
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.notificationservice.controller;
 
 import com.example.notificationservice.model.Notification;
+import com.example.notificationservice.model.NotificationPriority;
 import com.example.notificationservice.model.NotificationType;
 import com.example.notificationservice.service.NotificationService;
 import lombok.RequiredArgsConstructor;
@@ -26,9 +27,10 @@ public class NotificationController {
             @RequestParam NotificationType type,
             @RequestParam String recipient,
             @RequestParam String subject,
-            @RequestParam String content) {
+            @RequestParam String content,
+            @RequestParam(defaultValue = "TRANSACTIONAL") NotificationPriority priority) {
         Notification notification = notificationService.createNotification(
-                orderId, customerId, type, recipient, subject, content);
+                orderId, customerId, type, recipient, subject, content, priority);
         return new ResponseEntity<>(notification, HttpStatus.CREATED);
     }
     
@@ -43,18 +45,20 @@ public class NotificationController {
         notificationService.sendEmailNotification(
             request.getRecipient(),
             request.getSubject(),
-            request.getContent()
+            request.getContent(),
+            request.getPriority()
         );
-        return ResponseEntity.ok("Email notification sent successfully");
+        return ResponseEntity.ok("Email notification queued");
     }
 
     @PostMapping("/sms")
     public ResponseEntity<String> sendSms(@RequestBody SmsRequest request) {
         notificationService.sendSmsNotification(
             request.getRecipient(),
-            request.getContent()
+            request.getContent(),
+            request.getPriority()
         );
-        return ResponseEntity.ok("SMS notification sent successfully");
+        return ResponseEntity.ok("SMS notification queued");
     }
 
     @Data
@@ -64,6 +68,7 @@ public class NotificationController {
         private String recipient;
         private String subject;
         private String content;
+        private NotificationPriority priority = NotificationPriority.TRANSACTIONAL;
     }
 
     @Data
@@ -72,5 +77,6 @@ public class NotificationController {
     public static class SmsRequest {
         private String recipient;
         private String content;
+        private NotificationPriority priority = NotificationPriority.TRANSACTIONAL;
     }
 } 
\ No newline at end of file
@@ -0,0 +1,66 @@
+package com.example.notificationservice.dispatch;
+
+import com.example.notificationservice.model.NotificationPriority;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "notification.dispatch")
+public class NotificationDispatchProperties {
+    /**
+     * Workers that serve every lane, picking lanes in proportion to their weights.
+     */
+    private int sharedWorkers = 4;
+
+    private Map<NotificationPriority, Lane> lanes = defaults();
+
+    private Sweep sweep = new Sweep();
+
+    @Data
+    public static class Lane {
+        /**
+         * Workers reserved for this lane alone.
+         */
+        private int workers = 1;
+        private int queueCapacity = 10000;
+        /**
+         * Share of the shared workers this lane gets while every lane has work.
+         */
+        private int weight = 1;
+        /**
+         * Retry-After sent with the rejection when the queue is full; a full lane never
+         * blocks the request thread.
+         */
+        private long retryAfterSeconds = 1;
+    }
+
+    @Data
+    public static class Sweep {
+        /**
+         * How often PENDING rows that are not queued, such as those left by a restart, are
+         * queued again. The first sweep runs at startup.
+         */
+        private long intervalMs = 60000;
+        /**
+         * Minimum age of a PENDING row before the sweep considers it, so rows still on their
+         * way from a request to the queue are left alone.
+         */
+        private long staleAfterMs = 60000;
+    }
+
+    private static Map<NotificationPriority, Lane> defaults() {
+        Map<NotificationPriority, Lane> lanes = new EnumMap<>(NotificationPriority.class);
+        Lane transactional = new Lane();
+        transactional.setWorkers(4);
+        transactional.setWeight(4);
+        lanes.put(NotificationPriority.TRANSACTIONAL, transactional);
+        Lane bulk = new Lane();
+        bulk.setWorkers(1);
+        bulk.setRetryAfterSeconds(5);
+        lanes.put(NotificationPriority.BULK, bulk);
+        return lanes;
+    }
+}
@@ -0,0 +1,312 @@
+package com.example.notificationservice.dispatch;
+
+import com.example.notificationservice.exception.NotificationQueueFullException;
+import com.example.notificationservice.model.Notification;
+import com.example.notificationservice.model.NotificationPriority;
+import com.example.notificationservice.model.NotificationStatus;
+import com.example.notificationservice.repository.NotificationRepository;
+import com.example.notificationservice.service.MockEmailService;
+import com.example.notificationservice.service.MockSmsService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Sends persisted notifications from one bounded queue per {@link NotificationPriority}.
+ * Each lane has its own workers, so a bulk campaign can never occupy the threads that
+ * transactional messages rely on. A pool of shared workers serves the lanes by smooth
+ * weighted round robin, skipping empty ones: while every lane has work, each gets the
+ * shared capacity in proportion to its weight, and an idle lane's share goes to the others.
+ * <p>
+ * Ids are tracked from queueing until the send is recorded, so a notification is never in
+ * a queue twice, whether it came from a request or from {@link PendingNotificationSweeper}.
+ */
+@Service
+public class NotificationDispatcher {
+    private static final Logger log = LoggerFactory.getLogger(NotificationDispatcher.class);
+
+    private final NotificationRepository notificationRepository;
+    private final MockEmailService emailService;
+    private final MockSmsService smsService;
+    private final Map<NotificationPriority, Lane> lanes = new EnumMap<>(NotificationPriority.class);
+    private final Lane[] schedule;
+    private final AtomicInteger cursor = new AtomicInteger();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition workAvailable = lock.newCondition();
+    private final AtomicInteger idleSharedWorkers = new AtomicInteger();
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+    private final List<Thread> workers = new ArrayList<>();
+    private volatile boolean running = true;
+
+    public NotificationDispatcher(NotificationRepository notificationRepository,
+                                  MockEmailService emailService,
+                                  MockSmsService smsService,
+                                  NotificationDispatchProperties properties,
+                                  MeterRegistry meterRegistry) {
+        this.notificationRepository = notificationRepository;
+        this.emailService = emailService;
+        this.smsService = smsService;
+        for (NotificationPriority priority : NotificationPriority.values()) {
+            NotificationDispatchProperties.Lane config = properties.getLanes().get(priority);
+            if (config == null) {
+                throw new IllegalStateException("No notification.dispatch.lanes." + priority.name().toLowerCase() + " configured");
+            }
+            lanes.put(priority, new Lane(priority, config, meterRegistry));
+        }
+        this.schedule = weightedSchedule(lanes.values());
+
+        for (Lane lane : lanes.values()) {
+            for (int i = 0; i < lane.config.getWorkers(); i++) {
+                startWorker("notification-" + lane.name + "-" + i, () -> laneLoop(lane));
+            }
+        }
+        for (int i = 0; i < properties.getSharedWorkers(); i++) {
+            startWorker("notification-shared-" + i, this::sharedLoop);
+        }
+    }
+
+    /**
+     * Fails fast, before anything is persisted, while the priority's lane is full.
+     *
+     * @throws NotificationQueueFullException if the lane has no room
+     */
+    public void checkCapacity(NotificationPriority priority) {
+        Lane lane = lanes.get(priority);
+        if (lane.queue.remainingCapacity() == 0) {
+            throw rejection(lane);
+        }
+    }
+
+    /**
+     * Queues a persisted notification on its priority's lane without waiting for space.
+     *
+     * @throws NotificationQueueFullException if the lane is full
+     */
+    public void submit(Notification notification, NotificationPriority priority) {
+        if (!enqueue(notification, priority, false)) {
+            throw rejection(lanes.get(priority));
+        }
+    }
+
+    /**
+     * Queues a PENDING row found by the sweep unless the lane is full. Its status is read
+     * again just before sending, since it may have been sent after the sweep loaded it.
+     *
+     * @return false if the lane is full
+     */
+    public boolean resubmit(Notification notification, NotificationPriority priority) {
+        return enqueue(notification, priority, true);
+    }
+
+    public boolean isInFlight(Long notificationId) {
+        return inFlight.contains(notificationId);
+    }
+
+    /**
+     * A notification that is already queued or being sent is not queued again, and counts
+     * as accepted.
+     */
+    private boolean enqueue(Notification notification, NotificationPriority priority, boolean recheckStatus) {
+        if (!inFlight.add(notification.getId())) {
+            return true;
+        }
+        Lane lane = lanes.get(priority);
+        if (!lane.queue.offer(new Dispatch(notification, System.nanoTime(), recheckStatus))) {
+            inFlight.remove(notification.getId());
+            return false;
+        }
+        if (idleSharedWorkers.get() > 0) {
+            lock.lock();
+            try {
+                workAvailable.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+        return true;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        workers.forEach(Thread::interrupt);
+    }
+
+    private void startWorker(String name, Runnable loop) {
+        Thread worker = new Thread(loop, name);
+        worker.setDaemon(true);
+        worker.start();
+        workers.add(worker);
+    }
+
+    private void laneLoop(Lane lane) {
+        while (running) {
+            try {
+                send(lane, lane.queue.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void sharedLoop() {
+        while (running) {
+            try {
+                Lane lane = nextLaneWithWork();
+                if (lane != null) {
+                    Dispatch dispatch = lane.queue.poll();
+                    if (dispatch != null) {
+                        send(lane, dispatch);
+                    }
+                    continue;
+                }
+                lock.lock();
+                try {
+                    idleSharedWorkers.incrementAndGet();
+                    // Re-check after registering as idle: a submit that missed the count has already queued
+                    if (nextLaneWithWork() == null) {
+                        workAvailable.await(100, TimeUnit.MILLISECONDS);
+                    }
+                } finally {
+                    idleSharedWorkers.decrementAndGet();
+                    lock.unlock();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private Lane nextLaneWithWork() {
+        for (int i = 0; i < schedule.length; i++) {
+            Lane lane = schedule[Math.floorMod(cursor.getAndIncrement(), schedule.length)];
+            if (!lane.queue.isEmpty()) {
+                return lane;
+            }
+        }
+        return null;
+    }
+
+    private void send(Lane lane, Dispatch dispatch) {
+        lane.queueTime.record(System.nanoTime() - dispatch.queuedAt(), TimeUnit.NANOSECONDS);
+        Notification notification = dispatch.notification();
+        lane.sendTime.record(() -> {
+            try {
+                if (dispatch.recheckStatus() && notificationRepository.findById(notification.getId())
+                        .map(current -> current.getStatus() != NotificationStatus.PENDING).orElse(true)) {
+                    return;
+                }
+                switch (notification.getType()) {
+                    case EMAIL -> emailService.sendEmail(notification.getRecipient(), notification.getSubject(), notification.getContent());
+                    case SMS -> smsService.sendSms(notification.getRecipient(), notification.getContent());
+                }
+                notificationRepository.updateStatus(notification.getId(), NotificationStatus.SENT, LocalDateTime.now());
+            } catch (Exception e) {
+                log.error("Failed to send notification to {}: {}", notification.getRecipient(), e.getMessage());
+                try {
+                    notificationRepository.updateStatus(notification.getId(), NotificationStatus.FAILED, null);
+                } catch (Exception updateFailure) {
+                    log.error("Failed to mark notification {} as failed", notification.getId(), updateFailure);
+                }
+            } finally {
+                inFlight.remove(notification.getId());
+            }
+        });
+    }
+
+    /**
+     * Campaign producers are told to slow down (429); a full transactional lane means the
+     * service itself is overloaded (503).
+     */
+    private static NotificationQueueFullException rejection(Lane lane) {
+        lane.rejected.increment();
+        HttpStatus status = lane.priority == NotificationPriority.BULK
+                ? HttpStatus.TOO_MANY_REQUESTS
+                : HttpStatus.SERVICE_UNAVAILABLE;
+        return new NotificationQueueFullException(status, "The " + lane.name + " notification queue is full",
+                lane.config.getRetryAfterSeconds());
+    }
+
+    /**
+     * Smooth weighted round robin over one full cycle, e.g. weights 4:1 give T T B T T rather
+     * than T T T T B, so neither lane waits a whole cycle for its turn.
+     */
+    private static Lane[] weightedSchedule(Iterable<Lane> lanes) {
+        List<Lane> all = new ArrayList<>();
+        int total = 0;
+        for (Lane lane : lanes) {
+            all.add(lane);
+            total += Math.max(1, lane.config.getWeight());
+        }
+        int[] current = new int[all.size()];
+        Lane[] schedule = new Lane[total];
+        for (int slot = 0; slot < total; slot++) {
+            int best = 0;
+            for (int i = 0; i < all.size(); i++) {
+                current[i] += Math.max(1, all.get(i).config.getWeight());
+                if (current[i] > current[best]) {
+                    best = i;
+                }
+            }
+            current[best] -= total;
+            schedule[slot] = all.get(best);
+        }
+        return schedule;
+    }
+
+    private record Dispatch(Notification notification, long queuedAt, boolean recheckStatus) {
+    }
+
+    private static final class Lane {
+        private final NotificationPriority priority;
+        private final String name;
+        private final NotificationDispatchProperties.Lane config;
+        private final BlockingQueue<Dispatch> queue;
+        private final Timer queueTime;
+        private final Timer sendTime;
+        private final Counter rejected;
+
+        private Lane(NotificationPriority priority, NotificationDispatchProperties.Lane config, MeterRegistry meterRegistry) {
+            this.priority = priority;
+            this.name = priority.name().toLowerCase();
+            this.config = config;
+            this.queue = new ArrayBlockingQueue<>(config.getQueueCapacity());
+            Gauge.builder("notification.queue.depth", queue, BlockingQueue::size)
+                    .tag("lane", name)
+                    .register(meterRegistry);
+            this.queueTime = Timer.builder("notification.queue.time")
+                    .tag("lane", name)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+            this.sendTime = Timer.builder("notification.send.duration")
+                    .tag("lane", name)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+            this.rejected = Counter.builder("notification.rejected")
+                    .tag("lane", name)
+                    .register(meterRegistry);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.notificationservice.dispatch;
+
+import com.example.notificationservice.model.Notification;
+import com.example.notificationservice.model.NotificationPriority;
+import com.example.notificationservice.model.NotificationStatus;
+import com.example.notificationservice.repository.NotificationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * Queues PENDING notifications that no lane holds any more, for example after a restart
+ * dropped the in-memory queues. Runs at startup and then every
+ * {@code notification.dispatch.sweep.interval-ms}, lane by lane in priority order, and stops
+ * filling a lane as soon as it is full, so the sweep never crowds out live traffic.
+ */
+@Component
+public class PendingNotificationSweeper {
+    private static final Logger log = LoggerFactory.getLogger(PendingNotificationSweeper.class);
+
+    private final NotificationRepository notificationRepository;
+    private final NotificationDispatcher dispatcher;
+    private final long staleAfterMs;
+
+    public PendingNotificationSweeper(NotificationRepository notificationRepository,
+                                      NotificationDispatcher dispatcher,
+                                      NotificationDispatchProperties properties) {
+        this.notificationRepository = notificationRepository;
+        this.dispatcher = dispatcher;
+        this.staleAfterMs = properties.getSweep().getStaleAfterMs();
+    }
+
+    @Scheduled(fixedDelayString = "${notification.dispatch.sweep.interval-ms:60000}")
+    public void resubmitPending() {
+        LocalDateTime createdBefore = LocalDateTime.now().minus(staleAfterMs, ChronoUnit.MILLIS);
+        // Declaration order is priority order: TRANSACTIONAL first
+        for (NotificationPriority priority : NotificationPriority.values()) {
+            try {
+                int resubmitted = resubmit(priority, createdBefore);
+                if (resubmitted > 0) {
+                    log.info("Re-queued {} pending {} notifications", resubmitted, priority);
+                }
+            } catch (RuntimeException e) {
+                log.error("Failed to re-queue pending {} notifications", priority, e);
+            }
+        }
+    }
+
+    private int resubmit(NotificationPriority priority, LocalDateTime createdBefore) {
+        int resubmitted = 0;
+        long lastId = 0;
+        List<Notification> page;
+        do {
+            page = notificationRepository.findTop500ByStatusAndPriorityAndCreatedAtBeforeAndIdGreaterThanOrderByIdAsc(
+                    NotificationStatus.PENDING, priority, createdBefore, lastId);
+            for (Notification notification : page) {
+                if (dispatcher.isInFlight(notification.getId())) {
+                    continue;
+                }
+                if (!dispatcher.resubmit(notification, priority)) {
+                    log.warn("The {} lane is full, leaving the remaining pending notifications for the next sweep",
+                            priority);
+                    return resubmitted;
+                }
+                resubmitted++;
+            }
+            lastId = page.isEmpty() ? lastId : page.get(page.size() - 1).getId();
+        } while (!page.isEmpty());
+        return resubmitted;
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.notificationservice.exception;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * A lane had no room for the notification. Carries a Retry-After hint so producers back off
+ * instead of retrying straight into the full queue.
+ */
+public class NotificationQueueFullException extends ResponseStatusException {
+    private final long retryAfterSeconds;
+
+    public NotificationQueueFullException(HttpStatus status, String message, long retryAfterSeconds) {
+        super(status, message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        return headers;
+    }
+}
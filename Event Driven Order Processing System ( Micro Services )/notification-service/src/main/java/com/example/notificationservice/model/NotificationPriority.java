@@ -0,0 +1,6 @@
+package com.example.notificationservice.model;
+
+public enum NotificationPriority {
+    TRANSACTIONAL,
+    BULK
+}
@@ -1,12 +1,29 @@
 package com.example.notificationservice.repository;
 
 import com.example.notificationservice.model.Notification;
+import com.example.notificationservice.model.NotificationPriority;
+import com.example.notificationservice.model.NotificationStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
 public interface NotificationRepository extends JpaRepository<Notification, Long> {
     List<Notification> findByOrderId(Long orderId);
-} 
\ No newline at end of file
+
+    List<Notification> findTop500ByStatusAndPriorityAndCreatedAtBeforeAndIdGreaterThanOrderByIdAsc(
+            NotificationStatus status, NotificationPriority priority, LocalDateTime createdBefore, Long afterId);
+
+    /**
+     * Records the outcome of a send without loading the notification first.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Notification n SET n.status = :status, n.sentAt = :sentAt WHERE n.id = :id")
+    int updateStatus(Long id, NotificationStatus status, LocalDateTime sentAt);
+}
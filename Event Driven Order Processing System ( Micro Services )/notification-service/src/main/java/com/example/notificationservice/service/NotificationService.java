@@ -1,6 +1,9 @@
 package com.example.notificationservice.service;
 
+import com.example.notificationservice.dispatch.NotificationDispatcher;
+import com.example.notificationservice.exception.NotificationQueueFullException;
 import com.example.notificationservice.model.Notification;
+import com.example.notificationservice.model.NotificationPriority;
 import com.example.notificationservice.model.NotificationStatus;
 import com.example.notificationservice.model.NotificationType;
 import com.example.notificationservice.repository.NotificationRepository;
@@ -17,20 +20,28 @@ public class NotificationService {
     private static final Logger log = LoggerFactory.getLogger(NotificationService.class);
     
     private final NotificationRepository notificationRepository;
-    private final MockEmailService emailService;
-    private final MockSmsService smsService;
+    private final NotificationDispatcher dispatcher;
 
     public NotificationService(NotificationRepository notificationRepository,
-                             MockEmailService emailService,
-                             MockSmsService smsService) {
+                             NotificationDispatcher dispatcher) {
         this.notificationRepository = notificationRepository;
-        this.emailService = emailService;
-        this.smsService = smsService;
+        this.dispatcher = dispatcher;
     }
 
-    @Transactional
+    /**
+     * Persists the notification as PENDING and queues it on its priority's lane; it is sent
+     * and marked SENT or FAILED by the dispatcher. Not transactional on purpose: the row must
+     * be committed before a worker can pick it up. A full lane rejects the request before
+     * the row is written.
+     */
     public Notification createNotification(Long orderId, String customerId, NotificationType type,
-                                         String recipient, String subject, String content) {
+                                         String recipient, String subject, String content,
+                                         NotificationPriority priority) {
+        if (priority == null) {
+            priority = NotificationPriority.TRANSACTIONAL;
+        }
+        dispatcher.checkCapacity(priority);
+
         Notification notification = new Notification();
         notification.setOrderId(orderId);
         notification.setCustomerId(customerId);
@@ -38,75 +49,32 @@ public class NotificationService {
         notification.setSubject(subject);
         notification.setContent(content);
         notification.setType(type);
+        notification.setPriority(priority);
         notification.setStatus(NotificationStatus.PENDING);
         notification.setCreatedAt(LocalDateTime.now());
         notification.setRetryCount(0);
 
+        Notification saved = notificationRepository.save(notification);
         try {
-            switch (type) {
-                case EMAIL:
-                    emailService.sendEmail(recipient, subject, content);
-                    break;
-                case SMS:
-                    smsService.sendSms(recipient, content);
-                    break;
-            }
-            notification.setStatus(NotificationStatus.SENT);
-            notification.setSentAt(LocalDateTime.now());
-        } catch (Exception e) {
-            log.error("Failed to send notification to {}: {}", recipient, e.getMessage());
-            notification.setStatus(NotificationStatus.FAILED);
+            dispatcher.submit(saved, priority);
+        } catch (NotificationQueueFullException e) {
+            log.warn("Rejected {} notification to {}: {}", priority, recipient, e.getReason());
+            notificationRepository.updateStatus(saved.getId(), NotificationStatus.FAILED, null);
+            throw e;
         }
-
-        return notificationRepository.save(notification);
+        return saved;
     }
 
+    @Transactional(readOnly = true)
     public List<Notification> getNotificationsByOrderId(Long orderId) {
         return notificationRepository.findByOrderId(orderId);
     }
 
-    @Transactional
-    public void sendEmailNotification(String recipient, String subject, String content) {
-        Notification notification = new Notification();
-        notification.setRecipient(recipient);
-        notification.setSubject(subject);
-        notification.setContent(content);
-        notification.setType(NotificationType.EMAIL);
-        notification.setStatus(NotificationStatus.PENDING);
-        notification.setCreatedAt(LocalDateTime.now());
-        notification.setRetryCount(0);
-
-        try {
-            emailService.sendEmail(recipient, subject, content);
-            notification.setStatus(NotificationStatus.SENT);
-            notification.setSentAt(LocalDateTime.now());
-        } catch (Exception e) {
-            log.error("Failed to send email notification to {}: {}", recipient, e.getMessage());
-            notification.setStatus(NotificationStatus.FAILED);
-        }
-
-        notificationRepository.save(notification);
+    public void sendEmailNotification(String recipient, String subject, String content, NotificationPriority priority) {
+        createNotification(null, null, NotificationType.EMAIL, recipient, subject, content, priority);
     }
 
-    @Transactional
-    public void sendSmsNotification(String recipient, String content) {
-        Notification notification = new Notification();
-        notification.setRecipient(recipient);
-        notification.setContent(content);
-        notification.setType(NotificationType.SMS);
-        notification.setStatus(NotificationStatus.PENDING);
-        notification.setCreatedAt(LocalDateTime.now());
-        notification.setRetryCount(0);
-
-        try {
-            smsService.sendSms(recipient, content);
-            notification.setStatus(NotificationStatus.SENT);
-            notification.setSentAt(LocalDateTime.now());
-        } catch (Exception e) {
-            log.error("Failed to send SMS notification to {}: {}", recipient, e.getMessage());
-            notification.setStatus(NotificationStatus.FAILED);
-        }
-
-        notificationRepository.save(notification);
+    public void sendSmsNotification(String recipient, String content, NotificationPriority priority) {
+        createNotification(null, null, NotificationType.SMS, recipient, null, content, priority);
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,162 @@
+package com.example.orderservice.admission;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Concurrency limit that adapts to observed latency, in the style of a gradient limiter.
+ * Each sampling window compares its average latency with the fastest recent latency: while
+ * latency stays within the tolerance of the baseline the limit grows by about its square
+ * root, and once requests start queueing somewhere downstream (connection pool, producer
+ * buffer) the ratio drops below one and the limit shrinks with it. Failures cut the limit
+ * multiplicatively, as in AIMD.
+ * <p>
+ * Only {@link AdmissionPriority#NEW_ORDER} requests feed the latency samples and are held to
+ * the limit; {@link AdmissionPriority#STATUS} requests may also use a headroom above it, so
+ * they keep being served while new orders are shed.
+ */
+public class AdaptiveConcurrencyLimiter {
+    private static final double BASELINE_DRIFT = 0.002;
+    private static final double SMOOTHING = 0.2;
+    private static final double MIN_GRADIENT = 0.5;
+    private static final double FAILURE_BACKOFF = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double statusHeadroom;
+    private final long windowNanos;
+    private final int minWindowSamples;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder windowLatencyNanos = new LongAdder();
+    private final LongAdder windowSamples = new LongAdder();
+    private final AtomicLong windowMinNanos = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong windowEnd;
+    private volatile double limit;
+    private volatile double baselineNanos;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double tolerance,
+                                      double statusHeadroom, long windowMs, int minWindowSamples) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.statusHeadroom = statusHeadroom;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMs);
+        this.minWindowSamples = minWindowSamples;
+        this.windowEnd = new AtomicLong(System.nanoTime() + windowNanos);
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    /**
+     * Admits a request if there is capacity for its priority, or returns null when it
+     * should be shed. An admitted request must be completed exactly once.
+     */
+    public Permit tryAcquire(AdmissionPriority priority) {
+        int capacity = capacity(priority);
+        while (true) {
+            int current = inFlight.get();
+            if (current >= capacity) {
+                return null;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return new Permit(priority, System.nanoTime());
+            }
+        }
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * Latency without queueing as currently estimated, used to suggest when a shed caller should retry.
+     */
+    public long getBaselineMillis() {
+        return TimeUnit.NANOSECONDS.toMillis((long) baselineNanos);
+    }
+
+    private int capacity(AdmissionPriority priority) {
+        int current = (int) limit;
+        return priority == AdmissionPriority.NEW_ORDER
+                ? current
+                : current + Math.max(1, (int) Math.ceil(current * statusHeadroom));
+    }
+
+    private void onSample(long latencyNanos, int inFlightAtStart) {
+        windowLatencyNanos.add(latencyNanos);
+        windowSamples.increment();
+        windowMinNanos.accumulateAndGet(latencyNanos, Math::min);
+        long now = System.nanoTime();
+        long end = windowEnd.get();
+        if (now - end < 0 || windowSamples.sum() < minWindowSamples || !windowEnd.compareAndSet(end, now + windowNanos)) {
+            return;
+        }
+        long samples = windowSamples.sumThenReset();
+        long total = windowLatencyNanos.sumThenReset();
+        long fastest = windowMinNanos.getAndSet(Long.MAX_VALUE);
+        if (samples > 0) {
+            adjust((double) total / samples, fastest, inFlightAtStart);
+        }
+    }
+
+    // Only the thread that closed the window gets here
+    private void adjust(double windowAverageNanos, long fastestNanos, int inFlightAtStart) {
+        // The baseline approximates latency without queueing: the fastest request seen
+        // recently. It creeps up slowly, so a service that has become inherently slower is
+        // not throttled for good, but a window of queueing cannot drag it up with it.
+        double baseline = baselineNanos == 0 ? fastestNanos
+                : Math.min(fastestNanos, baselineNanos * (1 + BASELINE_DRIFT));
+        baselineNanos = baseline;
+
+        double current = limit;
+        double gradient = Math.max(MIN_GRADIENT, Math.min(1.0, tolerance * baseline / windowAverageNanos));
+        double target = current * gradient + Math.sqrt(current);
+        if (target > current && inFlightAtStart < current / 2) {
+            // The limit was not what held traffic back; growing it would only admit a burst later
+            return;
+        }
+        limit = clamp(current * (1 - SMOOTHING) + target * SMOOTHING);
+    }
+
+    private void onFailure() {
+        limit = clamp(limit * FAILURE_BACKOFF);
+    }
+
+    private double clamp(double value) {
+        return Math.max(minLimit, Math.min(maxLimit, value));
+    }
+
+    public final class Permit {
+        private final AdmissionPriority priority;
+        private final long startNanos;
+        private final int inFlightAtStart;
+
+        private Permit(AdmissionPriority priority, long startNanos) {
+            this.priority = priority;
+            this.startNanos = startNanos;
+            this.inFlightAtStart = inFlight.get();
+        }
+
+        /**
+         * Releases the permit. Failures of new-order requests shrink the limit; their
+         * successful latencies drive it.
+         */
+        public void complete(boolean success) {
+            inFlight.decrementAndGet();
+            if (priority != AdmissionPriority.NEW_ORDER) {
+                return;
+            }
+            if (success) {
+                onSample(System.nanoTime() - startNanos, inFlightAtStart);
+            } else {
+                onFailure();
+            }
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.orderservice.admission;
+
+public enum AdmissionPriority {
+    // Reads and transitions of existing orders; may use the headroom above the limit
+    STATUS,
+    // New orders; shed first
+    NEW_ORDER
+}
@@ -0,0 +1,44 @@
+package com.example.orderservice.admission;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+@Configuration
+@ConditionalOnProperty(name = "order.admission.enabled", havingValue = "true", matchIfMissing = true)
+public class OrderAdmissionConfiguration {
+
+    @Bean
+    public AdaptiveConcurrencyLimiter orderAdmissionLimiter(
+            @Value("${order.admission.initial-limit:20}") int initialLimit,
+            @Value("${order.admission.min-limit:5}") int minLimit,
+            @Value("${order.admission.max-limit:500}") int maxLimit,
+            @Value("${order.admission.latency-tolerance:1.5}") double tolerance,
+            @Value("${order.admission.status-headroom:0.25}") double statusHeadroom,
+            @Value("${order.admission.window-ms:500}") long windowMs,
+            @Value("${order.admission.min-window-samples:20}") int minWindowSamples,
+            MeterRegistry meterRegistry) {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(
+                initialLimit, minLimit, maxLimit, tolerance, statusHeadroom, windowMs, minWindowSamples);
+        Gauge.builder("order.admission.limit", limiter, AdaptiveConcurrencyLimiter::getLimit).register(meterRegistry);
+        Gauge.builder("order.admission.in-flight", limiter, AdaptiveConcurrencyLimiter::getInFlight).register(meterRegistry);
+        return limiter;
+    }
+
+    @Bean
+    public FilterRegistrationBean<OrderAdmissionFilter> orderAdmissionFilter(
+            AdaptiveConcurrencyLimiter orderAdmissionLimiter,
+            MeterRegistry meterRegistry,
+            @Value("${order.admission.min-retry-after-seconds:1}") long minRetryAfterSeconds) {
+        FilterRegistrationBean<OrderAdmissionFilter> registration = new FilterRegistrationBean<>(
+                new OrderAdmissionFilter(orderAdmissionLimiter, meterRegistry, minRetryAfterSeconds));
+        // Shed before any other filter does work for the request
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
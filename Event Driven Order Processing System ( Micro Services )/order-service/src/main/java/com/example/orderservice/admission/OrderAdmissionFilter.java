@@ -0,0 +1,82 @@
+package com.example.orderservice.admission;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Admission control for the order API. New orders are shed with 429 once the adaptive limit
+ * is reached; status reads and transitions use the headroom above it and only see 503 when
+ * that is exhausted too. Both carry a Retry-After hint. Event streams are long-lived and idle,
+ * so they are not admitted through the limiter.
+ */
+@Slf4j
+public class OrderAdmissionFilter extends OncePerRequestFilter {
+    private static final String ORDERS_PATH = "/api/orders";
+
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final long minRetryAfterSeconds;
+    private final Map<AdmissionPriority, Counter> rejections = new EnumMap<>(AdmissionPriority.class);
+
+    public OrderAdmissionFilter(AdaptiveConcurrencyLimiter limiter, MeterRegistry meterRegistry, long minRetryAfterSeconds) {
+        this.limiter = limiter;
+        this.minRetryAfterSeconds = minRetryAfterSeconds;
+        for (AdmissionPriority priority : AdmissionPriority.values()) {
+            rejections.put(priority, Counter.builder("order.admission.rejected")
+                    .tag("priority", priority.name())
+                    .register(meterRegistry));
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        return !path.startsWith(ORDERS_PATH) || path.endsWith("/events");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        AdmissionPriority priority = HttpMethod.POST.matches(request.getMethod()) && isCollection(request.getRequestURI())
+                ? AdmissionPriority.NEW_ORDER : AdmissionPriority.STATUS;
+        AdaptiveConcurrencyLimiter.Permit permit = limiter.tryAcquire(priority);
+        if (permit == null) {
+            reject(priority, response);
+            return;
+        }
+
+        boolean success = false;
+        try {
+            chain.doFilter(request, response);
+            success = response.getStatus() < HttpStatus.INTERNAL_SERVER_ERROR.value();
+        } finally {
+            permit.complete(success);
+        }
+    }
+
+    private void reject(AdmissionPriority priority, HttpServletResponse response) throws IOException {
+        rejections.get(priority).increment();
+        HttpStatus status = priority == AdmissionPriority.NEW_ORDER
+                ? HttpStatus.TOO_MANY_REQUESTS : HttpStatus.SERVICE_UNAVAILABLE;
+        // A few baseline latencies lets the in-flight work drain before the retry arrives
+        long retryAfter = Math.max(minRetryAfterSeconds, (limiter.getBaselineMillis() * 4 + 999) / 1000);
+        response.setHeader("Retry-After", String.valueOf(retryAfter));
+        log.debug("Shed {} request: {} in flight, limit {}", priority, limiter.getInFlight(), limiter.getLimit());
+        response.sendError(status.value(), "Order service is at capacity, retry later");
+    }
+
+    private static boolean isCollection(String path) {
+        return path.equals(ORDERS_PATH) || path.equals(ORDERS_PATH + "/");
+    }
+}
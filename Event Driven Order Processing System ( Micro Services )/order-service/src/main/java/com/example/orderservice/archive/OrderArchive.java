@@ -0,0 +1,55 @@
+package com.example.orderservice.archive;
+
+import com.example.common.partition.PartitionArchiveStore;
+import com.example.orderservice.model.Order;
+import com.example.orderservice.model.OrderItem;
+import com.example.orderservice.model.OrderStatus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Read-only access to orders whose monthly partitions have been archived and dropped.
+ */
+@Service
+@RequiredArgsConstructor
+public class OrderArchive {
+    private final PartitionArchiveStore archiveStore;
+
+    public Optional<Order> findOrder(Long orderId) {
+        return archiveStore.findOne(OrderPartitionConfiguration.ORDERS, orderId).map(row -> {
+            Order order = toOrder(row);
+            order.setItems(archiveStore.findAll(OrderPartitionConfiguration.ORDER_ITEMS, orderId).stream()
+                    .map(this::toOrderItem)
+                    .collect(Collectors.toList()));
+            return order;
+        });
+    }
+
+    private Order toOrder(Map<String, Object> row) {
+        return Order.builder()
+                .id((Long) row.get("id"))
+                .customerId((String) row.get("customer_id"))
+                .totalAmount((BigDecimal) row.get("total_amount"))
+                .status(row.get("status") == null ? null : OrderStatus.valueOf((String) row.get("status")))
+                .createdAt((LocalDateTime) row.get("created_at"))
+                .updatedAt((LocalDateTime) row.get("updated_at"))
+                .build();
+    }
+
+    private OrderItem toOrderItem(Map<String, Object> row) {
+        return OrderItem.builder()
+                .id((Long) row.get("id"))
+                .productId((String) row.get("product_id"))
+                .quantity((Integer) row.get("quantity"))
+                .price((BigDecimal) row.get("price"))
+                .subtotal((BigDecimal) row.get("subtotal"))
+                .createdAt((LocalDateTime) row.get("created_at"))
+                .build();
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.orderservice.archive;
+
+import com.example.common.partition.PartitionedTable;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+
+import java.util.List;
+
+@Configuration
+public class OrderPartitionConfiguration {
+    static final String ORDERS = "orders";
+    static final String ORDER_ITEMS = "order_items";
+
+    @Bean
+    @Order(1)
+    public PartitionedTable ordersTable() {
+        return new PartitionedTable(ORDERS, "id");
+    }
+
+    // Archived by order id so an order's items are found with a single key lookup
+    @Bean
+    @Order(2)
+    public PartitionedTable orderItemsTable() {
+        return new PartitionedTable(ORDER_ITEMS, "order_id",
+                List.of("UPDATE order_items i SET created_at = o.created_at FROM orders o " +
+                        "WHERE o.id = i.order_id AND i.created_at IS NULL"),
+                List.of());
+    }
+}
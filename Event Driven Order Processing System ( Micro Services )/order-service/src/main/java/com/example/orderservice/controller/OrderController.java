@@ -3,16 +3,20 @@ package com.example.orderservice.controller;
 import com.example.orderservice.model.Order;
 import com.example.orderservice.model.OrderStatus;
 import com.example.orderservice.service.OrderService;
+import com.example.orderservice.service.OrderStatusStreamService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RestController
 @RequestMapping("/api/orders")
 @RequiredArgsConstructor
 public class OrderController {
     private final OrderService orderService;
+    private final OrderStatusStreamService orderStatusStreamService;
     
     @PostMapping
     public ResponseEntity<Order> createOrder(@RequestBody Order order) {
@@ -26,6 +30,16 @@ public class OrderController {
         return ResponseEntity.ok(order);
     }
     
+    @GetMapping(value = "/{orderId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamOrderEvents(@PathVariable Long orderId) {
+        return orderStatusStreamService.subscribeToOrder(orderId);
+    }
+    
+    @GetMapping(value = "/customer/{customerId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamCustomerEvents(@PathVariable String customerId) {
+        return orderStatusStreamService.subscribeToCustomer(customerId);
+    }
+    
     @PutMapping("/{orderId}/status")
     public ResponseEntity<Order> updateOrderStatus(
             @PathVariable Long orderId,
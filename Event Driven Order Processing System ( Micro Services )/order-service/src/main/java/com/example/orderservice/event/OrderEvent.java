@@ -20,6 +20,7 @@ public class OrderEvent {
     private OrderStatus status;
     private BigDecimal totalAmount;
     private LocalDateTime timestamp;
+    private LocalDateTime createdAt;
     private List<OrderItemEvent> items;
     
     @Data
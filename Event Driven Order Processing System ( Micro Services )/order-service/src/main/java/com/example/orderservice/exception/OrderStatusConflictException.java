@@ -0,0 +1,12 @@
+package com.example.orderservice.exception;
+
+import com.example.orderservice.model.OrderStatus;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class OrderStatusConflictException extends RuntimeException {
+    public OrderStatusConflictException(Long orderId, OrderStatus target) {
+        super("Order " + orderId + " cannot transition to " + target + " from its current status");
+    }
+}
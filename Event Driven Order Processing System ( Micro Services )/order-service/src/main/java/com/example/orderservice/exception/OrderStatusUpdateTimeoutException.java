@@ -0,0 +1,15 @@
+package com.example.orderservice.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * A status update was not confirmed in time. Its outcome is unknown: it may still be applied,
+ * so callers should re-read the order rather than assume it failed.
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class OrderStatusUpdateTimeoutException extends RuntimeException {
+    public OrderStatusUpdateTimeoutException(Long orderId, Throwable cause) {
+        super("Status update of order " + orderId + " was not confirmed in time; its outcome is unknown", cause);
+    }
+}
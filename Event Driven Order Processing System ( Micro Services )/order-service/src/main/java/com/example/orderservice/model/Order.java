@@ -1,5 +1,6 @@
 package com.example.orderservice.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -30,6 +31,10 @@ public class Order {
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     
+    // Version of the order's latest event; null for orders created before the event store
+    @JsonIgnore
+    private Integer eventVersion;
+    
     @OneToMany(cascade = CascadeType.ALL, mappedBy = "order")
     private List<OrderItem> items;
     
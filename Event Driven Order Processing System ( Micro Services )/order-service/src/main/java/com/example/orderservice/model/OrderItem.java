@@ -7,9 +7,10 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "order_items")
+@Table(name = "order_items", indexes = @Index(name = "idx_order_items_order_id", columnList = "order_id"))
 @Data
 @Builder
 @NoArgsConstructor
@@ -19,12 +20,21 @@ public class OrderItem {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
     
+    // No database foreign key: orders is partitioned, so its primary key is (id, created_at)
     @ManyToOne
-    @JoinColumn(name = "order_id", nullable = false)
+    @JoinColumn(name = "order_id", nullable = false, foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
     private Order order;
     
     private String productId;
     private Integer quantity;
     private BigDecimal price;
     private BigDecimal subtotal;
+    
+    // Partition key; copied from the order so an order and its items archive together
+    private LocalDateTime createdAt;
+    
+    @PrePersist
+    protected void onCreate() {
+        createdAt = order != null && order.getCreatedAt() != null ? order.getCreatedAt() : LocalDateTime.now();
+    }
 } 
\ No newline at end of file
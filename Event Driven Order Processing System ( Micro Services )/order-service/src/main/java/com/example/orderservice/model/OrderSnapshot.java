@@ -0,0 +1,31 @@
+package com.example.orderservice.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "order_snapshots")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderSnapshot {
+    @Id
+    @Column(name = "aggregate_id", length = 36)
+    private String aggregateId;
+
+    private Integer version;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "snapshot_data")
+    private String snapshotData;
+
+    private LocalDateTime createdAt;
+}
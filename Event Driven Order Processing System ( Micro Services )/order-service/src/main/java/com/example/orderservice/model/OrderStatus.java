@@ -1,5 +1,11 @@
 package com.example.orderservice.model;
 
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
 public enum OrderStatus {
     CREATED,
     PENDING_INVENTORY_CHECK,
@@ -8,5 +14,24 @@ public enum OrderStatus {
     PAYMENT_COMPLETED,
     PAYMENT_FAILED,
     CANCELLED,
-    COMPLETED
-} 
\ No newline at end of file
+    COMPLETED;
+
+    // Target status -> statuses an order may move from to reach it
+    private static final Map<OrderStatus, Set<OrderStatus>> PREDECESSORS = new EnumMap<>(OrderStatus.class);
+
+    static {
+        PREDECESSORS.put(CREATED, EnumSet.noneOf(OrderStatus.class));
+        PREDECESSORS.put(PENDING_INVENTORY_CHECK, EnumSet.of(CREATED));
+        PREDECESSORS.put(INVENTORY_CONFIRMED, EnumSet.of(CREATED, PENDING_INVENTORY_CHECK));
+        PREDECESSORS.put(PAYMENT_PENDING, EnumSet.of(INVENTORY_CONFIRMED));
+        PREDECESSORS.put(PAYMENT_COMPLETED, EnumSet.of(PAYMENT_PENDING));
+        PREDECESSORS.put(PAYMENT_FAILED, EnumSet.of(PAYMENT_PENDING));
+        PREDECESSORS.put(CANCELLED, EnumSet.of(
+                CREATED, PENDING_INVENTORY_CHECK, INVENTORY_CONFIRMED, PAYMENT_PENDING, PAYMENT_FAILED));
+        PREDECESSORS.put(COMPLETED, EnumSet.of(PAYMENT_COMPLETED));
+    }
+
+    public Set<OrderStatus> allowedPredecessors() {
+        return Collections.unmodifiableSet(PREDECESSORS.get(this));
+    }
+}
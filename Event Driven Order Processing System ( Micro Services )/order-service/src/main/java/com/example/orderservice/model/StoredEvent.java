@@ -0,0 +1,41 @@
+package com.example.orderservice.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Entity
+@Table(name = "events",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"aggregate_id", "version"}),
+        indexes = @Index(name = "idx_events_aggregate_version", columnList = "aggregate_id, version"))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StoredEvent {
+    @Id
+    @Column(name = "event_id")
+    private UUID eventId;
+
+    @Column(name = "event_type", length = 100)
+    private String eventType;
+
+    @Column(name = "aggregate_id", length = 36, nullable = false)
+    private String aggregateId;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "event_data")
+    private String eventData;
+
+    private LocalDateTime timestamp;
+
+    @Column(nullable = false)
+    private Integer version;
+}
@@ -0,0 +1,27 @@
+package com.example.orderservice.repository;
+
+import com.example.orderservice.model.StoredEvent;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
+@Repository
+public interface StoredEventRepository extends JpaRepository<StoredEvent, UUID> {
+    List<StoredEvent> findByAggregateIdAndVersionGreaterThanOrderByVersionAsc(String aggregateId, Integer version);
+
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT e FROM StoredEvent e ORDER BY e.aggregateId, e.version")
+    Stream<StoredEvent> streamAllOrderedByAggregate();
+}
@@ -0,0 +1,326 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.event.OrderEvent;
+import com.example.orderservice.model.Order;
+import com.example.orderservice.model.OrderItem;
+import com.example.orderservice.model.OrderSnapshot;
+import com.example.orderservice.model.StoredEvent;
+import com.example.orderservice.repository.OrderSnapshotRepository;
+import com.example.orderservice.repository.StoredEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.PersistenceException;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Append-only store for order events. Each status transition is written to the
+ * {@code events} table with a per-order version; the current state of an order is
+ * rebuilt from its latest snapshot plus the events appended after it.
+ */
+@Service
+@Slf4j
+public class OrderEventStore {
+    private final StoredEventRepository eventRepository;
+    private final OrderSnapshotRepository snapshotRepository;
+    private final ObjectMapper objectMapper;
+    private final int snapshotFrequency;
+    private final Map<Long, VersionedState> snapshotCache;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public OrderEventStore(StoredEventRepository eventRepository,
+                           OrderSnapshotRepository snapshotRepository,
+                           ObjectMapper objectMapper,
+                           @Value("${order.event-store.snapshot-frequency:50}") int snapshotFrequency,
+                           @Value("${order.event-store.cache-size:10000}") int cacheSize) {
+        this.eventRepository = eventRepository;
+        this.snapshotRepository = snapshotRepository;
+        this.objectMapper = objectMapper;
+        this.snapshotFrequency = snapshotFrequency;
+        this.snapshotCache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, VersionedState> eldest) {
+                return size() > cacheSize;
+            }
+        });
+    }
+
+    /**
+     * Appends events for an order after {@code expectedVersion} in the caller's transaction.
+     * Nothing is read first: every event carries the order's full state, and if another writer
+     * has already appended past {@code expectedVersion} the unique (aggregate_id, version)
+     * constraint rejects the insert, which fails with {@link OptimisticLockingFailureException}.
+     */
+    @Transactional
+    public int append(Long orderId, int expectedVersion, List<OrderEvent> events) {
+        appendAll(List.of(new Append(orderId, expectedVersion, events)));
+        return expectedVersion + events.size();
+    }
+
+    /**
+     * Appends for several orders at once, as {@link #append} does for one, with all events
+     * written in a single JDBC batch. A conflict on any order fails the whole call.
+     */
+    @Transactional
+    public void appendAll(List<Append> appends) {
+        Session session = entityManager.unwrap(Session.class);
+        Integer configuredBatchSize = session.getJdbcBatchSize();
+        session.setJdbcBatchSize(Math.max(appends.stream().mapToInt(append -> append.events().size()).sum(), 1));
+        Map<Long, VersionedState> newStates = new HashMap<>();
+        List<Long> snapshotsDue = new ArrayList<>();
+        try {
+            for (Append append : appends) {
+                // Fold onto the cached state only when it is exactly the version being appended to
+                VersionedState cached = snapshotCache.get(append.orderId());
+                OrderEvent state = cached != null && cached.version() == append.expectedVersion()
+                        ? copy(cached.state()) : null;
+                String aggregateId = String.valueOf(append.orderId());
+                int version = append.expectedVersion();
+                boolean snapshotDue = false;
+                for (OrderEvent event : append.events()) {
+                    version++;
+                    entityManager.persist(StoredEvent.builder()
+                            .eventId(UUID.randomUUID())
+                            .eventType(event.getStatus().name())
+                            .aggregateId(aggregateId)
+                            .eventData(serialize(event))
+                            .timestamp(event.getTimestamp())
+                            .version(version)
+                            .build());
+                    state = apply(state, event);
+                    snapshotDue |= version % snapshotFrequency == 0;
+                }
+                newStates.put(append.orderId(), new VersionedState(version, state));
+                if (snapshotDue) {
+                    snapshotsDue.add(append.orderId());
+                }
+            }
+            // Flush here so a concurrent append surfaces as a unique (aggregate_id, version) violation
+            try {
+                entityManager.flush();
+            } catch (PersistenceException e) {
+                newStates.keySet().forEach(snapshotCache::remove);
+                throw new OptimisticLockingFailureException("Concurrent append to order(s) " + newStates.keySet(), e);
+            }
+        } finally {
+            session.setJdbcBatchSize(configuredBatchSize);
+        }
+
+        for (Long orderId : snapshotsDue) {
+            VersionedState snapshot = newStates.get(orderId);
+            saveSnapshot(String.valueOf(orderId), snapshot.version(), snapshot.state());
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    snapshotCache.putAll(newStates);
+                }
+            });
+        } else {
+            snapshotCache.putAll(newStates);
+        }
+    }
+
+    /**
+     * Current state of an order: its cached or snapshotted state plus whatever has been
+     * appended since, which also picks up appends made by other instances.
+     */
+    @Transactional(readOnly = true)
+    public Optional<Order> load(Long orderId) {
+        return loadState(orderId).map(versioned -> {
+            Order order = toOrder(versioned.state());
+            order.setEventVersion(versioned.version());
+            return order;
+        });
+    }
+
+    @Transactional(readOnly = true)
+    public int currentVersion(Long orderId) {
+        return loadState(orderId).map(VersionedState::version).orElse(0);
+    }
+
+    /**
+     * Streams the whole log in (aggregate, version) order without materialising it,
+     * for rebuilding read models.
+     */
+    @Transactional(readOnly = true)
+    public void replay(Consumer<OrderEvent> consumer) {
+        try (Stream<StoredEvent> events = eventRepository.streamAllOrderedByAggregate()) {
+            events.forEach(stored -> {
+                consumer.accept(deserialize(stored.getEventData()));
+                entityManager.detach(stored);
+            });
+        }
+    }
+
+    /**
+     * Rebuilds the snapshot projection for every order from the event log.
+     */
+    @Transactional
+    public void rebuildSnapshots() {
+        snapshotCache.clear();
+        String[] aggregateId = {null};
+        OrderEvent[] state = {null};
+        int[] version = {0};
+        int[] rebuilt = {0};
+        try (Stream<StoredEvent> events = eventRepository.streamAllOrderedByAggregate()) {
+            events.forEach(stored -> {
+                if (!stored.getAggregateId().equals(aggregateId[0])) {
+                    if (aggregateId[0] != null) {
+                        saveSnapshot(aggregateId[0], version[0], state[0]);
+                        if (++rebuilt[0] % 1000 == 0) {
+                            entityManager.flush();
+                            entityManager.clear();
+                        }
+                    }
+                    aggregateId[0] = stored.getAggregateId();
+                    state[0] = null;
+                }
+                state[0] = apply(state[0], deserialize(stored.getEventData()));
+                version[0] = stored.getVersion();
+                entityManager.detach(stored);
+            });
+        }
+        if (aggregateId[0] != null) {
+            saveSnapshot(aggregateId[0], version[0], state[0]);
+            rebuilt[0]++;
+        }
+        log.info("Rebuilt {} order snapshots from the event log", rebuilt[0]);
+    }
+
+    private Optional<VersionedState> loadState(Long orderId) {
+        String aggregateId = String.valueOf(orderId);
+        VersionedState cached = snapshotCache.get(orderId);
+        if (cached != null) {
+            // Empty when the cached state is current, so a cache hit costs one indexed lookup
+            List<StoredEvent> newer = eventRepository
+                    .findByAggregateIdAndVersionGreaterThanOrderByVersionAsc(aggregateId, cached.version());
+            return Optional.of(newer.isEmpty() ? cached
+                    : fold(orderId, cached.version(), copy(cached.state()), newer));
+        }
+
+        Optional<OrderSnapshot> snapshot = snapshotRepository.findById(aggregateId);
+        int fromVersion = snapshot.map(OrderSnapshot::getVersion).orElse(0);
+        OrderEvent state = snapshot.map(s -> deserialize(s.getSnapshotData())).orElse(null);
+        List<StoredEvent> tail = eventRepository
+                .findByAggregateIdAndVersionGreaterThanOrderByVersionAsc(aggregateId, fromVersion);
+        if (state == null && tail.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(fold(orderId, fromVersion, state, tail));
+    }
+
+    private VersionedState fold(Long orderId, int fromVersion, OrderEvent state, List<StoredEvent> tail) {
+        int version = fromVersion;
+        for (StoredEvent stored : tail) {
+            state = apply(state, deserialize(stored.getEventData()));
+            version = stored.getVersion();
+        }
+        VersionedState loaded = new VersionedState(version, state);
+        snapshotCache.put(orderId, loaded);
+        return loaded;
+    }
+
+    private void saveSnapshot(String aggregateId, int version, OrderEvent state) {
+        snapshotRepository.save(OrderSnapshot.builder()
+                .aggregateId(aggregateId)
+                .version(version)
+                .snapshotData(serialize(state))
+                .createdAt(LocalDateTime.now())
+                .build());
+    }
+
+    private OrderEvent apply(OrderEvent state, OrderEvent event) {
+        if (state == null) {
+            return copy(event);
+        }
+        state.setStatus(event.getStatus());
+        state.setTimestamp(event.getTimestamp());
+        if (event.getTotalAmount() != null) {
+            state.setTotalAmount(event.getTotalAmount());
+        }
+        if (event.getItems() != null) {
+            state.setItems(event.getItems());
+        }
+        if (event.getCreatedAt() != null) {
+            state.setCreatedAt(event.getCreatedAt());
+        }
+        return state;
+    }
+
+    private Order toOrder(OrderEvent state) {
+        Order order = Order.builder()
+                .id(state.getOrderId())
+                .customerId(state.getCustomerId())
+                .totalAmount(state.getTotalAmount())
+                .status(state.getStatus())
+                .createdAt(state.getCreatedAt())
+                .updatedAt(state.getTimestamp())
+                .build();
+        if (state.getItems() != null) {
+            order.setItems(state.getItems().stream()
+                    .map(item -> OrderItem.builder()
+                            .productId(item.getProductId())
+                            .quantity(item.getQuantity())
+                            .price(item.getPrice())
+                            .subtotal(item.getSubtotal())
+                            .build())
+                    .collect(Collectors.toList()));
+        }
+        return order;
+    }
+
+    private OrderEvent copy(OrderEvent event) {
+        return objectMapper.convertValue(event, OrderEvent.class);
+    }
+
+    private String serialize(OrderEvent event) {
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize order event", e);
+        }
+    }
+
+    private OrderEvent deserialize(String data) {
+        try {
+            return objectMapper.readValue(data, OrderEvent.class);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to deserialize order event", e);
+        }
+    }
+
+    private record VersionedState(int version, OrderEvent state) {
+    }
+
+    /**
+     * Events for one order, to be appended after {@code expectedVersion}.
+     */
+    public record Append(Long orderId, int expectedVersion, List<OrderEvent> events) {
+    }
+}
@@ -1,17 +1,28 @@
 package com.example.orderservice.service;
 
+import com.example.common.jdbc.ReadFromPrimary;
+import com.example.orderservice.archive.OrderArchive;
 import com.example.orderservice.event.OrderEvent;
+import com.example.orderservice.exception.OrderStatusConflictException;
+import com.example.orderservice.exception.OrderStatusUpdateTimeoutException;
 import com.example.orderservice.model.Order;
 import com.example.orderservice.model.OrderStatus;
 import com.example.orderservice.repository.OrderRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
 
 @Service
@@ -20,16 +31,23 @@ import java.util.stream.Collectors;
 public class OrderService {
     private final OrderRepository orderRepository;
     private final KafkaTemplate<String, OrderEvent> kafkaTemplate;
+    private final OrderEventStore orderEventStore;
+    private final OrderArchive orderArchive;
+    private final TransactionTemplate transactionTemplate;
+    private final OrderStatusTransitions statusTransitions;
+    private final ObjectProvider<OrderStatusGroupCommitter> groupCommitter;
     
     private static final String ORDER_TOPIC = "order-events";
     
     @Transactional
     public Order createOrder(Order order) {
         order.setStatus(OrderStatus.CREATED);
+        order.setEventVersion(1);
         Order savedOrder = orderRepository.save(order);
         
         // Publish order created event
         OrderEvent orderEvent = createOrderEvent(savedOrder);
+        orderEventStore.append(savedOrder.getId(), 0, List.of(orderEvent));
         kafkaTemplate.send(ORDER_TOPIC, String.valueOf(savedOrder.getId()), orderEvent);
         
         log.info("Order created and event published for orderId: {}", savedOrder.getId());
@@ -37,32 +55,73 @@ public class OrderService {
     }
     
     @Cacheable(value = "orders", key = "#orderId")
+    @ReadFromPrimary
+    @Transactional(readOnly = true)
     public Order getOrder(Long orderId) {
-        return orderRepository.findById(orderId)
+        return orderEventStore.load(orderId)
+                // Orders created before the event store existed have no history
+                .or(() -> orderRepository.findById(orderId))
+                // Orders older than the retention window live only in the partition archive
+                .or(() -> orderArchive.findOrder(orderId))
                 .orElseThrow(() -> new RuntimeException("Order not found"));
     }
     
-    @Transactional
+    /**
+     * Applies a guarded status transition in a single conditional UPDATE that also returns what
+     * the event needs, so the order is never loaded; a rejected transition surfaces as
+     * {@link OrderStatusConflictException}. With group commit enabled the transition joins the
+     * next group instead, and this returns once that group has committed. If it has not within
+     * the group-commit timeout, {@link OrderStatusUpdateTimeoutException} reports the outcome as
+     * unknown: the update may still commit, and the committer evicts the cached order when it
+     * does. The transaction is programmatic so a caller waiting on its group does not hold a
+     * connection.
+     */
+    @CacheEvict(value = "orders", key = "#orderId")
     public Order updateOrderStatus(Long orderId, OrderStatus status) {
-        Order order = getOrder(orderId);
-        order.setStatus(status);
-        Order updatedOrder = orderRepository.save(order);
+        OrderStatusGroupCommitter committer = groupCommitter.getIfAvailable();
+        if (committer == null) {
+            return transactionTemplate.execute(tx -> transitionStatus(orderId, status));
+        }
+        try {
+            return committer.submit(orderId, status).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof TimeoutException) {
+                throw new OrderStatusUpdateTimeoutException(orderId, e.getCause());
+            }
+            throw e;
+        }
+    }
+    
+    private Order transitionStatus(Long orderId, OrderStatus status) {
+        if (status.allowedPredecessors().isEmpty()) {
+            throw new OrderStatusConflictException(orderId, status);
+        }
+
+        OrderStatusTransitions.Result result = statusTransitions
+                .apply(Map.of(orderId, status), LocalDateTime.now())
+                .get(orderId);
+        if (result.error() != null) {
+            throw result.error();
+        }
         
         // Publish order status updated event
-        OrderEvent orderEvent = createOrderEvent(updatedOrder);
-        kafkaTemplate.send(ORDER_TOPIC, String.valueOf(orderId), orderEvent);
+        kafkaTemplate.send(ORDER_TOPIC, String.valueOf(orderId), result.event());
         
         log.info("Order status updated to {} for orderId: {}", status, orderId);
-        return updatedOrder;
+        return result.order();
     }
     
-    private OrderEvent createOrderEvent(Order order) {
+    static OrderEvent createOrderEvent(Order order) {
         return OrderEvent.builder()
                 .orderId(order.getId())
                 .customerId(order.getCustomerId())
                 .status(order.getStatus())
                 .totalAmount(order.getTotalAmount())
                 .timestamp(LocalDateTime.now())
+                .createdAt(order.getCreatedAt())
                 .items(order.getItems().stream()
                         .map(item -> OrderEvent.OrderItemEvent.builder()
                                 .productId(item.getProductId())
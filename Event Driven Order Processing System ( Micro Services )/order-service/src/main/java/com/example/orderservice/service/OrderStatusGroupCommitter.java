@@ -0,0 +1,269 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.event.OrderEvent;
+import com.example.orderservice.exception.OrderStatusConflictException;
+import com.example.orderservice.model.Order;
+import com.example.orderservice.model.OrderStatus;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Group commit for status transitions. Concurrent updates are collected for up to
+ * {@code max-wait-micros}, applied with one conditional UPDATE over the whole group (see
+ * {@link OrderStatusTransitions}), their events appended in the same transaction and then
+ * sent back to back so the producer batches them, and each caller's future completes once
+ * the group has committed. Cached copies of the updated orders are evicted after the commit,
+ * whether or not their callers are still waiting. A caller gives up after {@code timeout-ms},
+ * and updates still queued at shutdown are failed.
+ * <p>
+ * If the group transaction fails as a whole, for example on a concurrent event-store append,
+ * its updates are retried one transaction each so a single bad update cannot fail the rest.
+ */
+@Service
+@Slf4j
+@ConditionalOnProperty(prefix = "order.status.group-commit", name = "enabled", havingValue = "true")
+public class OrderStatusGroupCommitter {
+    private static final String ORDER_TOPIC = "order-events";
+    private static final String ORDERS_CACHE = "orders";
+
+    private final OrderStatusTransitions statusTransitions;
+    private final KafkaTemplate<String, OrderEvent> kafkaTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Cache ordersCache;
+    private final ObservationRegistry observationRegistry;
+    private final DistributionSummary groupSize;
+    private final int maxGroupSize;
+    private final long maxWaitNanos;
+    private final long timeoutMs;
+    private final BlockingQueue<StatusUpdate> queue;
+    private final Thread committer;
+    private final List<StatusUpdate> carriedOver = new ArrayList<>();
+    private volatile boolean running = true;
+
+    public OrderStatusGroupCommitter(OrderStatusTransitions statusTransitions,
+                                     KafkaTemplate<String, OrderEvent> kafkaTemplate,
+                                     TransactionTemplate transactionTemplate,
+                                     CacheManager cacheManager,
+                                     MeterRegistry meterRegistry,
+                                     ObservationRegistry observationRegistry,
+                                     @Value("${order.status.group-commit.max-size:200}") int maxGroupSize,
+                                     @Value("${order.status.group-commit.max-wait-micros:1000}") long maxWaitMicros,
+                                     @Value("${order.status.group-commit.queue-capacity:20000}") int queueCapacity,
+                                     @Value("${order.status.group-commit.timeout-ms:5000}") long timeoutMs) {
+        this.statusTransitions = statusTransitions;
+        this.kafkaTemplate = kafkaTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.ordersCache = cacheManager.getCache(ORDERS_CACHE);
+        this.observationRegistry = observationRegistry;
+        this.groupSize = DistributionSummary.builder("order.status.group-commit.size")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.maxGroupSize = maxGroupSize;
+        this.maxWaitNanos = TimeUnit.MICROSECONDS.toNanos(maxWaitMicros);
+        this.timeoutMs = timeoutMs;
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+        this.committer = new Thread(this::commitLoop, "order-status-group-commit");
+        this.committer.setDaemon(true);
+        this.committer.start();
+    }
+
+    /**
+     * Queues a transition. The future completes with the updated order once the transition
+     * is committed, or fails with {@link OrderStatusConflictException}, "Order not found", or
+     * a {@link java.util.concurrent.TimeoutException} if the group has not committed within
+     * {@code timeout-ms}. A timed-out transition stays queued and may still be applied.
+     */
+    public CompletableFuture<Order> submit(Long orderId, OrderStatus status) {
+        StatusUpdate update = new StatusUpdate(orderId, status,
+                observationRegistry.getCurrentObservation(), new CompletableFuture<>());
+        if (status.allowedPredecessors().isEmpty()) {
+            update.result().completeExceptionally(new OrderStatusConflictException(orderId, status));
+        } else if (!running) {
+            update.result().completeExceptionally(new IllegalStateException("Order status group commit is shut down"));
+        } else if (!queue.offer(update)) {
+            update.result().completeExceptionally(new IllegalStateException("Order status update queue is full"));
+        }
+        return update.result().orTimeout(timeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        committer.interrupt();
+        committer.join(timeoutMs);
+    }
+
+    private void commitLoop() {
+        try {
+            while (running) {
+                try {
+                    List<StatusUpdate> group = nextGroup();
+                    groupSize.record(group.size());
+                    commit(group);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (RuntimeException e) {
+                    log.error("Order status group commit loop failed", e);
+                }
+            }
+        } finally {
+            failPending();
+        }
+    }
+
+    /**
+     * Fails whatever is still queued or carried over once the loop has stopped, so no caller
+     * waits out its timeout on an update that will never be applied.
+     */
+    private void failPending() {
+        List<StatusUpdate> pending = new ArrayList<>(carriedOver);
+        carriedOver.clear();
+        queue.drainTo(pending);
+        IllegalStateException shutdown = new IllegalStateException("Order status group commit is shut down");
+        pending.forEach(update -> update.result().completeExceptionally(shutdown));
+        if (!pending.isEmpty()) {
+            log.warn("Failed {} pending order status updates on shutdown", pending.size());
+        }
+    }
+
+    /**
+     * Collects up to max-size updates with distinct order ids; a second update for an order
+     * already in the group waits for the next one, so updates to one order stay in order.
+     */
+    private List<StatusUpdate> nextGroup() throws InterruptedException {
+        List<StatusUpdate> group = new ArrayList<>(maxGroupSize);
+        Set<Long> orderIds = new HashSet<>();
+        List<StatusUpdate> pending = new ArrayList<>(carriedOver);
+        carriedOver.clear();
+        if (pending.isEmpty()) {
+            pending.add(queue.take());
+        }
+        long deadline = System.nanoTime() + maxWaitNanos;
+        while (true) {
+            for (StatusUpdate update : pending) {
+                if (group.size() < maxGroupSize && orderIds.add(update.orderId())) {
+                    group.add(update);
+                } else {
+                    carriedOver.add(update);
+                }
+            }
+            pending.clear();
+            long remaining = deadline - System.nanoTime();
+            if (group.size() >= maxGroupSize || remaining <= 0) {
+                return group;
+            }
+            StatusUpdate next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return group;
+            }
+            pending.add(next);
+            queue.drainTo(pending, maxGroupSize - group.size() - 1);
+        }
+    }
+
+    private void commit(List<StatusUpdate> group) {
+        List<Outcome> outcomes;
+        try {
+            outcomes = transactionTemplate.execute(status -> applyGroup(group));
+        } catch (RuntimeException e) {
+            log.warn("Group commit of {} status updates failed, retrying them one by one: {}", group.size(), e.getMessage());
+            outcomes = new ArrayList<>();
+            for (StatusUpdate update : group) {
+                try {
+                    outcomes.addAll(transactionTemplate.execute(status -> applyGroup(List.of(update))));
+                } catch (RuntimeException single) {
+                    outcomes.add(new Outcome(update, null, null, single));
+                }
+            }
+        }
+        // Evict before releasing the callers so none of them can read back its pre-update copy
+        for (Outcome outcome : outcomes) {
+            if (outcome.error() == null) {
+                evict(outcome.update().orderId());
+            }
+        }
+        // The outcomes are final once committed, so release the callers before touching Kafka
+        for (Outcome outcome : outcomes) {
+            if (outcome.error() == null) {
+                outcome.update().result().complete(outcome.order());
+            } else {
+                outcome.update().result().completeExceptionally(outcome.error());
+            }
+        }
+        // Send back to back so the producer packs them into as few requests as possible
+        for (Outcome outcome : outcomes) {
+            if (outcome.event() == null) {
+                continue;
+            }
+            try {
+                scoped(outcome.update().parent(), () -> kafkaTemplate.send(ORDER_TOPIC,
+                        String.valueOf(outcome.update().orderId()), outcome.event()));
+            } catch (RuntimeException e) {
+                log.error("Failed to publish status event for orderId: {}", outcome.update().orderId(), e);
+            }
+        }
+    }
+
+    private void evict(Long orderId) {
+        try {
+            ordersCache.evict(orderId);
+        } catch (RuntimeException e) {
+            log.error("Failed to evict cached orderId: {}", orderId, e);
+        }
+    }
+
+    private static void scoped(Observation parent, Runnable action) {
+        if (parent == null) {
+            action.run();
+        } else {
+            parent.scoped(action);
+        }
+    }
+
+    /**
+     * Runs inside the group transaction and returns one outcome per update, to be published
+     * and completed only once the transaction has committed.
+     */
+    private List<Outcome> applyGroup(List<StatusUpdate> group) {
+        Map<Long, OrderStatus> transitions = new LinkedHashMap<>();
+        group.forEach(update -> transitions.put(update.orderId(), update.status()));
+        Map<Long, OrderStatusTransitions.Result> results = statusTransitions.apply(transitions, LocalDateTime.now());
+        List<Outcome> outcomes = new ArrayList<>(group.size());
+        for (StatusUpdate update : group) {
+            OrderStatusTransitions.Result result = results.get(update.orderId());
+            outcomes.add(new Outcome(update, result.order(), result.event(), result.error()));
+        }
+        return outcomes;
+    }
+
+    private record StatusUpdate(Long orderId, OrderStatus status, Observation parent,
+                                CompletableFuture<Order> result) {
+    }
+
+    private record Outcome(StatusUpdate update, Order order, OrderEvent event, RuntimeException error) {
+    }
+}
@@ -0,0 +1,351 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.event.OrderEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.WakeupException;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Pushes order status changes to SSE subscribers. Each instance tails order-events itself,
+ * assigned every partition from the end and without a consumer group, and fans each event
+ * out to bounded per-subscriber queues; emitters are servlet-async so idle connections hold
+ * no request thread.
+ * <p>
+ * A subscriber whose queue fills up, or whose send blocks longer than the send timeout, is
+ * closed so it cannot hold back the others; it can reconnect and re-read the order. Idle
+ * streams get a heartbeat comment so proxies keep them open.
+ * <p>
+ * Drains run on a fixed set of send threads behind a bounded queue. When the queue is full a
+ * subscriber stays marked and is drained on a later pass, so a burst of heartbeats across many
+ * connections delays them rather than dropping healthy streams.
+ */
+@Service
+@Slf4j
+public class OrderStatusStreamService implements SmartLifecycle {
+    private static final String ORDER_TOPIC = "order-events";
+    private static final Duration POLL_TIMEOUT = Duration.ofMillis(500);
+    private static final long PARTITION_CHECK_INTERVAL_MS = 60_000;
+    private static final long RESTART_BACKOFF_MS = 5_000;
+
+    private final Map<Long, Set<Subscriber>> orderSubscribers = new ConcurrentHashMap<>();
+    private final Map<String, Set<Subscriber>> customerSubscribers = new ConcurrentHashMap<>();
+    private final KafkaProperties kafkaProperties;
+    private final ThreadPoolExecutor sendExecutor;
+    private final ScheduledExecutorService watchdog;
+    private final long emitterTimeoutMs;
+    private final int subscriberBufferSize;
+    private final long sendTimeoutNanos;
+    private final long heartbeatMs;
+    private volatile KafkaConsumer<String, OrderEvent> consumer;
+    private volatile boolean running;
+
+    public OrderStatusStreamService(KafkaProperties kafkaProperties,
+                                    @Value("${order.sse.timeout-ms:1800000}") long emitterTimeoutMs,
+                                    @Value("${order.sse.subscriber-buffer:32}") int subscriberBufferSize,
+                                    @Value("${order.sse.send-threads:8}") int sendThreads,
+                                    @Value("${order.sse.max-send-threads:64}") int maxSendThreads,
+                                    @Value("${order.sse.drain-queue-capacity:10000}") int drainQueueCapacity,
+                                    @Value("${order.sse.send-timeout-ms:5000}") long sendTimeoutMs,
+                                    @Value("${order.sse.heartbeat-ms:15000}") long heartbeatMs) {
+        this.kafkaProperties = kafkaProperties;
+        this.emitterTimeoutMs = emitterTimeoutMs;
+        this.subscriberBufferSize = subscriberBufferSize;
+        this.sendTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+        this.heartbeatMs = heartbeatMs;
+        AtomicInteger threadCount = new AtomicInteger();
+        // Grows past send-threads only once the queue is full, e.g. while sends to stalled clients are still blocked
+        this.sendExecutor = new ThreadPoolExecutor(sendThreads, Math.max(sendThreads, maxSendThreads),
+                60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(drainQueueCapacity), runnable -> {
+            Thread thread = new Thread(runnable, "order-sse-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.watchdog = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "order-sse-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public SseEmitter subscribeToOrder(Long orderId) {
+        return register(orderSubscribers, orderId);
+    }
+
+    public SseEmitter subscribeToCustomer(String customerId) {
+        return register(customerSubscribers, customerId);
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        Thread poller = new Thread(this::consumeLoop, "order-sse-consumer");
+        poller.setDaemon(true);
+        poller.start();
+        watchdog.scheduleAtFixedRate(this::evictStalledSubscribers, 1, 1, TimeUnit.SECONDS);
+        watchdog.scheduleAtFixedRate(this::retryDeferredDrains, 1, 1, TimeUnit.SECONDS);
+        watchdog.scheduleAtFixedRate(this::sendHeartbeats, heartbeatMs, heartbeatMs, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        KafkaConsumer<String, OrderEvent> current = consumer;
+        if (current != null) {
+            current.wakeup();
+        }
+        watchdog.shutdownNow();
+        sendExecutor.shutdownNow();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    void onOrderEvent(OrderEvent event) {
+        fanOut(orderSubscribers.get(event.getOrderId()), event);
+        if (event.getCustomerId() != null) {
+            fanOut(customerSubscribers.get(event.getCustomerId()), event);
+        }
+    }
+
+    private void consumeLoop() {
+        while (running) {
+            try (KafkaConsumer<String, OrderEvent> kafkaConsumer = createConsumer()) {
+                consumer = kafkaConsumer;
+                long nextPartitionCheck = 0;
+                while (running) {
+                    // Also picks up the topic once it exists, and partitions added later
+                    if (kafkaConsumer.assignment().isEmpty() || System.currentTimeMillis() >= nextPartitionCheck) {
+                        assignNewPartitions(kafkaConsumer);
+                        nextPartitionCheck = System.currentTimeMillis() + PARTITION_CHECK_INTERVAL_MS;
+                    }
+                    for (ConsumerRecord<String, OrderEvent> record : kafkaConsumer.poll(POLL_TIMEOUT)) {
+                        // Undeserializable records come through as null and are skipped
+                        if (record.value() != null) {
+                            onOrderEvent(record.value());
+                        }
+                    }
+                }
+            } catch (WakeupException e) {
+                // stop() was called
+            } catch (RuntimeException e) {
+                log.warn("Order event stream failed, restarting in {} ms: {}", RESTART_BACKOFF_MS, e.getMessage());
+                sleepQuietly(RESTART_BACKOFF_MS);
+            }
+        }
+    }
+
+    private KafkaConsumer<String, OrderEvent> createConsumer() {
+        Map<String, Object> config = Map.of(
+                ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, String.join(",", kafkaProperties.getBootstrapServers()),
+                ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false,
+                ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "latest");
+        JsonDeserializer<OrderEvent> json = new JsonDeserializer<>(OrderEvent.class, false);
+        json.ignoreTypeHeaders();
+        return new KafkaConsumer<>(config, new StringDeserializer(), new ErrorHandlingDeserializer<>(json));
+    }
+
+    private void assignNewPartitions(KafkaConsumer<String, OrderEvent> kafkaConsumer) {
+        List<PartitionInfo> partitions = kafkaConsumer.partitionsFor(ORDER_TOPIC);
+        if (partitions == null || partitions.size() == kafkaConsumer.assignment().size()) {
+            return;
+        }
+        Set<TopicPartition> added = new HashSet<>();
+        for (PartitionInfo info : partitions) {
+            TopicPartition partition = new TopicPartition(ORDER_TOPIC, info.partition());
+            if (!kafkaConsumer.assignment().contains(partition)) {
+                added.add(partition);
+            }
+        }
+        Set<TopicPartition> all = new HashSet<>(kafkaConsumer.assignment());
+        all.addAll(added);
+        kafkaConsumer.assign(all);
+        // Subscribers only want what happens from now on
+        kafkaConsumer.seekToEnd(added);
+    }
+
+    private <K> SseEmitter register(Map<K, Set<Subscriber>> subscribers, K key) {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        Subscriber subscriber = new Subscriber(emitter, new ArrayBlockingQueue<>(subscriberBufferSize));
+        Runnable unregister = () -> subscribers.computeIfPresent(key, (k, set) -> {
+            set.remove(subscriber);
+            return set.isEmpty() ? null : set;
+        });
+        subscriber.unregister = unregister;
+        emitter.onCompletion(unregister);
+        emitter.onTimeout(unregister);
+        emitter.onError(e -> unregister.run());
+
+        subscribers.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        return emitter;
+    }
+
+    private void fanOut(Set<Subscriber> subscribers, OrderEvent event) {
+        if (subscribers == null) {
+            return;
+        }
+        for (Subscriber subscriber : subscribers) {
+            if (!subscriber.queue.offer(event)) {
+                // Never let one slow client back up the stream; it can reconnect and re-read the order
+                log.debug("Dropping slow SSE subscriber for orderId: {}", event.getOrderId());
+                subscriber.close();
+                continue;
+            }
+            scheduleDrain(subscriber);
+        }
+    }
+
+    private void scheduleDrain(Subscriber subscriber) {
+        if (subscriber.draining.compareAndSet(false, true)) {
+            try {
+                sendExecutor.execute(() -> drain(subscriber));
+            } catch (RejectedExecutionException e) {
+                // The drain queue is full; keep the subscriber and let the next retry pass pick it up
+                subscriber.drainDeferred.set(true);
+                subscriber.draining.set(false);
+            }
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            OrderEvent event;
+            while (!subscriber.closed.get() && (event = subscriber.queue.poll()) != null) {
+                subscriber.send(SseEmitter.event()
+                        .name("order-status")
+                        .id(event.getOrderId() + "-" + event.getStatus())
+                        .data(event));
+            }
+            if (subscriber.heartbeatDue.compareAndSet(true, false) && !subscriber.closed.get()) {
+                subscriber.send(SseEmitter.event().comment("heartbeat"));
+            }
+        } catch (IOException | IllegalStateException e) {
+            subscriber.close();
+            return;
+        } finally {
+            subscriber.draining.set(false);
+        }
+        if (!subscriber.queue.isEmpty() || subscriber.heartbeatDue.get()) {
+            scheduleDrain(subscriber);
+        }
+    }
+
+    private void evictStalledSubscribers() {
+        long now = System.nanoTime();
+        allSubscribers().forEach(subscriber -> {
+            long started = subscriber.sendStartedAt;
+            if (started != 0 && now - started > sendTimeoutNanos) {
+                log.debug("Closing SSE subscriber stalled in send for {} ms", TimeUnit.NANOSECONDS.toMillis(now - started));
+                subscriber.close();
+            }
+        });
+    }
+
+    private void retryDeferredDrains() {
+        allSubscribers().forEach(subscriber -> {
+            if (subscriber.drainDeferred.getAndSet(false)) {
+                scheduleDrain(subscriber);
+            }
+        });
+    }
+
+    private void sendHeartbeats() {
+        allSubscribers().forEach(subscriber -> {
+            subscriber.heartbeatDue.set(true);
+            scheduleDrain(subscriber);
+        });
+    }
+
+    private Stream<Subscriber> allSubscribers() {
+        return Stream.concat(orderSubscribers.values().stream(), customerSubscribers.values().stream())
+                .flatMap(Set::stream);
+    }
+
+    private static void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class Subscriber {
+        private final SseEmitter emitter;
+        private final BlockingQueue<OrderEvent> queue;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean heartbeatDue = new AtomicBoolean();
+        private final AtomicBoolean drainDeferred = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private volatile long sendStartedAt;
+        private Runnable unregister;
+
+        private Subscriber(SseEmitter emitter, BlockingQueue<OrderEvent> queue) {
+            this.emitter = emitter;
+            this.queue = queue;
+        }
+
+        private void send(SseEmitter.SseEventBuilder event) throws IOException {
+            sendStartedAt = System.nanoTime();
+            try {
+                emitter.send(event);
+            } finally {
+                sendStartedAt = 0;
+                if (closed.get()) {
+                    // Evicted while blocked in this send
+                    completeQuietly();
+                }
+            }
+        }
+
+        private void close() {
+            if (closed.compareAndSet(false, true)) {
+                unregister.run();
+                queue.clear();
+                // The emitter serialises send and complete, so a stalled send finishes the close itself
+                if (sendStartedAt == 0) {
+                    completeQuietly();
+                }
+            }
+        }
+
+        private void completeQuietly() {
+            try {
+                emitter.complete();
+            } catch (RuntimeException e) {
+                log.debug("SSE emitter already closed: {}", e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.event.OrderEvent;
+import com.example.orderservice.exception.OrderStatusConflictException;
+import com.example.orderservice.model.Order;
+import com.example.orderservice.model.OrderItem;
+import com.example.orderservice.model.OrderStatus;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Guarded status transitions in one round trip. A single statement moves every order whose
+ * current status allows it, bumps its event version and returns it with its items, and also
+ * returns the orders that were not moved; the events are then appended at the returned
+ * versions in one batch, without reading anything back. Runs in the caller's transaction.
+ */
+@Service
+public class OrderStatusTransitions {
+    // Rows with a null event_version are orders whose transition was rejected; requested ids
+    // missing from the result do not exist
+    private static final String TRANSITION_SQL =
+            "WITH requested AS (SELECT * FROM unnest(?::bigint[], ?::varchar[]) AS r(id, status)), " +
+            "updated AS (UPDATE orders o SET status = r.status, updated_at = ?, " +
+            "event_version = COALESCE(o.event_version, " +
+            "(SELECT MAX(e.version) FROM events e WHERE e.aggregate_id = CAST(o.id AS varchar)), 0) + 1 " +
+            "FROM requested r WHERE o.id = r.id AND o.status || '>' || r.status = ANY(?::varchar[]) " +
+            "RETURNING o.id, o.event_version, o.customer_id, o.total_amount, o.created_at) " +
+            "SELECT u.id, u.event_version, u.customer_id, u.total_amount, u.created_at, " +
+            "i.product_id, i.quantity, i.price, i.subtotal " +
+            "FROM updated u LEFT JOIN order_items i ON i.order_id = u.id " +
+            "UNION ALL " +
+            "SELECT o.id, NULL, NULL, NULL, NULL, NULL, NULL, NULL, NULL FROM orders o JOIN requested r ON r.id = o.id " +
+            "WHERE NOT EXISTS (SELECT 1 FROM updated u WHERE u.id = o.id)";
+
+    private static final String[] ALLOWED_TRANSITIONS = allowedTransitions();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final OrderEventStore orderEventStore;
+
+    public OrderStatusTransitions(DataSource dataSource, OrderEventStore orderEventStore) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.orderEventStore = orderEventStore;
+    }
+
+    /**
+     * Applies each requested transition and appends an event for every order that moved.
+     * Returns one result per requested order id: the updated order and its event, or
+     * {@link OrderStatusConflictException} or "Order not found".
+     */
+    public Map<Long, Result> apply(Map<Long, OrderStatus> transitions, LocalDateTime now) {
+        Map<Long, Order> moved = new LinkedHashMap<>();
+        List<Long> rejected = new ArrayList<>();
+        transition(transitions, now, moved, rejected);
+
+        Map<Long, Result> results = new HashMap<>();
+        List<OrderEventStore.Append> appends = new ArrayList<>(moved.size());
+        for (Order order : moved.values()) {
+            OrderEvent event = OrderService.createOrderEvent(order);
+            appends.add(new OrderEventStore.Append(order.getId(), order.getEventVersion() - 1, List.of(event)));
+            results.put(order.getId(), new Result(order, event, null));
+        }
+        if (!appends.isEmpty()) {
+            orderEventStore.appendAll(appends);
+        }
+        for (Long orderId : rejected) {
+            results.put(orderId, new Result(null, null, new OrderStatusConflictException(orderId, transitions.get(orderId))));
+        }
+        for (Long orderId : transitions.keySet()) {
+            results.putIfAbsent(orderId, new Result(null, null, new RuntimeException("Order not found")));
+        }
+        return results;
+    }
+
+    private void transition(Map<Long, OrderStatus> transitions, LocalDateTime now,
+                            Map<Long, Order> moved, List<Long> rejected) {
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            Long[] ids = new Long[transitions.size()];
+            String[] statuses = new String[transitions.size()];
+            int i = 0;
+            for (Map.Entry<Long, OrderStatus> transition : transitions.entrySet()) {
+                ids[i] = transition.getKey();
+                statuses[i++] = transition.getValue().name();
+            }
+            Array idArray = connection.createArrayOf("bigint", ids);
+            Array statusArray = connection.createArrayOf("varchar", statuses);
+            Array transitionArray = connection.createArrayOf("varchar", ALLOWED_TRANSITIONS);
+            try (PreparedStatement statement = connection.prepareStatement(TRANSITION_SQL)) {
+                statement.setArray(1, idArray);
+                statement.setArray(2, statusArray);
+                statement.setTimestamp(3, Timestamp.valueOf(now));
+                statement.setArray(4, transitionArray);
+                try (ResultSet rs = statement.executeQuery()) {
+                    while (rs.next()) {
+                        long orderId = rs.getLong("id");
+                        int eventVersion = rs.getInt("event_version");
+                        if (rs.wasNull()) {
+                            rejected.add(orderId);
+                            continue;
+                        }
+                        Order order = moved.get(orderId);
+                        if (order == null) {
+                            order = newOrder(rs, orderId, eventVersion, transitions.get(orderId), now);
+                            moved.put(orderId, order);
+                        }
+                        if (rs.getString("product_id") != null) {
+                            order.getItems().add(OrderItem.builder()
+                                    .productId(rs.getString("product_id"))
+                                    .quantity(rs.getInt("quantity"))
+                                    .price(rs.getBigDecimal("price"))
+                                    .subtotal(rs.getBigDecimal("subtotal"))
+                                    .build());
+                        }
+                    }
+                }
+                return null;
+            } finally {
+                idArray.free();
+                statusArray.free();
+                transitionArray.free();
+            }
+        });
+    }
+
+    private static Order newOrder(ResultSet rs, Long orderId, int eventVersion, OrderStatus status,
+                                  LocalDateTime now) throws SQLException {
+        Timestamp createdAt = rs.getTimestamp("created_at");
+        return Order.builder()
+                .id(orderId)
+                .customerId(rs.getString("customer_id"))
+                .totalAmount(rs.getBigDecimal("total_amount"))
+                .status(status)
+                .createdAt(createdAt == null ? null : createdAt.toLocalDateTime())
+                .updatedAt(now)
+                .eventVersion(eventVersion)
+                .items(new ArrayList<>())
+                .build();
+    }
+
+    private static String[] allowedTransitions() {
+        List<String> transitions = new ArrayList<>();
+        for (OrderStatus target : OrderStatus.values()) {
+            for (OrderStatus predecessor : target.allowedPredecessors()) {
+                transitions.add(predecessor.name() + ">" + target.name());
+            }
+        }
+        return transitions.toArray(new String[0]);
+    }
+
+    /**
+     * Either the updated order and the event appended for it, or the reason it was not updated.
+     */
+    public record Result(Order order, OrderEvent event, RuntimeException error) {
+    }
+}
@@ -0,0 +1,170 @@
+package com.example.orderservice.service;
+
+import com.example.common.sql.SqlProfilingConfiguration;
+import com.example.common.sql.SqlRequestScope;
+import com.example.orderservice.event.OrderEvent;
+import com.example.orderservice.model.Order;
+import com.example.orderservice.model.OrderSnapshot;
+import com.example.orderservice.model.OrderStatus;
+import com.example.orderservice.model.StoredEvent;
+import com.example.orderservice.repository.OrderSnapshotRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Folding, replay and optimistic concurrency of the order event store, on an in-memory database.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "order.event-store.snapshot-frequency=2",
+        "sql.profiling.slow-query-log=target/slow-queries.log"
+})
+@ImportAutoConfiguration({JacksonAutoConfiguration.class, SqlProfilingConfiguration.class})
+@Import(OrderEventStore.class)
+class OrderEventStoreTest {
+
+    @Autowired
+    private OrderEventStore eventStore;
+
+    @Autowired
+    private OrderSnapshotRepository snapshotRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void loadFoldsAppendedEventsIntoTheCurrentState() {
+        eventStore.append(1L, 0, List.of(event(1L, OrderStatus.CREATED)));
+        eventStore.append(1L, 1, List.of(event(1L, OrderStatus.PENDING_INVENTORY_CHECK)));
+
+        Order order = eventStore.load(1L).orElseThrow();
+
+        assertThat(order.getStatus()).isEqualTo(OrderStatus.PENDING_INVENTORY_CHECK);
+        assertThat(order.getEventVersion()).isEqualTo(2);
+        assertThat(order.getItems()).singleElement()
+                .satisfies(item -> assertThat(item.getProductId()).isEqualTo("product-1"));
+        assertThat(eventStore.load(2L)).isEmpty();
+    }
+
+    @Test
+    void replayStreamsTheLogInAggregateAndVersionOrder() {
+        eventStore.append(2L, 0, List.of(event(2L, OrderStatus.CREATED)));
+        eventStore.append(1L, 0, List.of(event(1L, OrderStatus.CREATED)));
+        eventStore.append(2L, 1, List.of(event(2L, OrderStatus.CANCELLED)));
+        eventStore.append(1L, 1, List.of(event(1L, OrderStatus.INVENTORY_CONFIRMED),
+                event(1L, OrderStatus.PAYMENT_PENDING)));
+
+        List<String> replayed = new ArrayList<>();
+        eventStore.replay(event -> replayed.add(event.getOrderId() + ":" + event.getStatus()));
+
+        assertThat(replayed).containsExactly(
+                "1:CREATED", "1:INVENTORY_CONFIRMED", "1:PAYMENT_PENDING",
+                "2:CREATED", "2:CANCELLED");
+    }
+
+    @Test
+    void rebuildSnapshotsReplaysEveryOrderToItsLatestVersion() {
+        eventStore.append(1L, 0, List.of(event(1L, OrderStatus.CREATED),
+                event(1L, OrderStatus.INVENTORY_CONFIRMED), event(1L, OrderStatus.PAYMENT_PENDING)));
+        eventStore.append(2L, 0, List.of(event(2L, OrderStatus.CREATED)));
+
+        eventStore.rebuildSnapshots();
+
+        OrderSnapshot snapshot = snapshotRepository.findById("1").orElseThrow();
+        assertThat(snapshot.getVersion()).isEqualTo(3);
+        assertThat(snapshotRepository.findById("2").orElseThrow().getVersion()).isEqualTo(1);
+        assertThat(eventStore.load(1L).orElseThrow().getStatus()).isEqualTo(OrderStatus.PAYMENT_PENDING);
+    }
+
+    @Test
+    void appendAtAVersionAlreadyTakenIsRejected() {
+        eventStore.append(1L, 0, List.of(event(1L, OrderStatus.CREATED)));
+
+        assertThatThrownBy(() -> eventStore.append(1L, 0, List.of(event(1L, OrderStatus.CANCELLED))))
+                .isInstanceOf(OptimisticLockingFailureException.class);
+    }
+
+    @Test
+    void appendAllWritesEveryOrderInOneBatch() {
+        List<OrderEventStore.Append> appends = new ArrayList<>();
+        for (long orderId = 1; orderId <= 5; orderId++) {
+            appends.add(new OrderEventStore.Append(orderId, 0, List.of(event(orderId, OrderStatus.CREATED))));
+        }
+
+        try (SqlRequestScope scope = SqlRequestScope.open("test")) {
+            eventStore.appendAll(appends);
+
+            assertThat(scope.statementCount()).isEqualTo(1);
+            assertThat(scope.batchCount()).isEqualTo(1);
+        }
+        assertThat(eventStore.load(5L).orElseThrow().getEventVersion()).isEqualTo(1);
+    }
+
+    @Test
+    void appendAllFailsAsAWholeWhenOneOrderConflicts() {
+        eventStore.append(1L, 0, List.of(event(1L, OrderStatus.CREATED)));
+
+        assertThatThrownBy(() -> eventStore.appendAll(List.of(
+                new OrderEventStore.Append(2L, 0, List.of(event(2L, OrderStatus.CREATED))),
+                new OrderEventStore.Append(1L, 0, List.of(event(1L, OrderStatus.CANCELLED))))))
+                .isInstanceOf(OptimisticLockingFailureException.class);
+    }
+
+    @Test
+    void loadCatchesUpWithEventsAppendedByAnotherInstance() throws Exception {
+        eventStore.append(1L, 0, List.of(event(1L, OrderStatus.CREATED)));
+        assertThat(eventStore.load(1L).orElseThrow().getEventVersion()).isEqualTo(1);
+
+        // Written straight to the log, bypassing this store's cache
+        entityManager.persistAndFlush(StoredEvent.builder()
+                .eventId(UUID.randomUUID())
+                .eventType(OrderStatus.CANCELLED.name())
+                .aggregateId("1")
+                .eventData(objectMapper.writeValueAsString(event(1L, OrderStatus.CANCELLED)))
+                .timestamp(LocalDateTime.now())
+                .version(2)
+                .build());
+
+        Order order = eventStore.load(1L).orElseThrow();
+        assertThat(order.getStatus()).isEqualTo(OrderStatus.CANCELLED);
+        assertThat(order.getEventVersion()).isEqualTo(2);
+        assertThatThrownBy(() -> eventStore.append(1L, 1, List.of(event(1L, OrderStatus.CANCELLED))))
+                .isInstanceOf(OptimisticLockingFailureException.class);
+    }
+
+    private static OrderEvent event(Long orderId, OrderStatus status) {
+        return OrderEvent.builder()
+                .orderId(orderId)
+                .customerId("customer-" + orderId)
+                .status(status)
+                .totalAmount(new BigDecimal("25.00"))
+                .timestamp(LocalDateTime.now())
+                .createdAt(LocalDateTime.now())
+                .items(List.of(OrderEvent.OrderItemEvent.builder()
+                        .productId("product-" + orderId)
+                        .quantity(1)
+                        .price(new BigDecimal("25.00"))
+                        .subtotal(new BigDecimal("25.00"))
+                        .build()))
+                .build();
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.event.OrderEvent;
+import com.example.orderservice.model.OrderStatus;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Commits per second and p99 latency of {@link OrderService#updateOrderStatus} through the group
+ * committer, with 1,000 and 10,000 concurrent updaters each walking its own orders through the
+ * status lifecycle. Needs a scratch PostgreSQL database; not part of the regular test run, run it
+ * with {@code mvn -pl order-service test -Dtest=OrderStatusGroupCommitBenchmark
+ * -Dsurefire.failIfNoSpecifiedTests=false -Dbenchmark.datasource.url=jdbc:postgresql://host:5432/db}.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=${benchmark.datasource.url:jdbc:postgresql://localhost:5432/orderbench}",
+        "spring.datasource.username=${benchmark.datasource.username:postgres}",
+        "spring.datasource.password=${benchmark.datasource.password:postgres}",
+        "spring.cache.type=none",
+        "order.status.group-commit.enabled=true",
+        "logging.level.com.example.orderservice=INFO"
+})
+class OrderStatusGroupCommitBenchmark {
+    private static final OrderStatus[] LIFECYCLE = {
+            OrderStatus.PENDING_INVENTORY_CHECK, OrderStatus.INVENTORY_CONFIRMED, OrderStatus.PAYMENT_PENDING,
+            OrderStatus.PAYMENT_COMPLETED, OrderStatus.COMPLETED};
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @MockBean
+    private KafkaTemplate<String, OrderEvent> kafkaTemplate;
+
+    // Keeps the SSE relay from polling a broker that is not there
+    @MockBean
+    private OrderStatusStreamService orderStatusStreamService;
+
+    @Test
+    void concurrentUpdaters() throws InterruptedException {
+        run(1_000, 2, false);
+        run(1_000, 10, true);
+        run(10_000, 2, true);
+    }
+
+    /**
+     * Each updater moves {@code ordersPerUpdater} orders through the five lifecycle transitions,
+     * one update at a time.
+     */
+    private void run(int updaters, int ordersPerUpdater, boolean report) throws InterruptedException {
+        long[][] orderIds = createOrders(updaters, ordersPerUpdater);
+        int updatesPerUpdater = ordersPerUpdater * LIFECYCLE.length;
+        long[][] latencies = new long[updaters][updatesPerUpdater];
+        AtomicInteger failures = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(updaters);
+        for (int u = 0; u < updaters; u++) {
+            long[] mine = orderIds[u];
+            long[] latency = latencies[u];
+            Thread updater = new Thread(() -> {
+                try {
+                    start.await();
+                    int n = 0;
+                    for (long orderId : mine) {
+                        for (OrderStatus status : LIFECYCLE) {
+                            long started = System.nanoTime();
+                            try {
+                                orderService.updateOrderStatus(orderId, status);
+                            } catch (RuntimeException e) {
+                                failures.incrementAndGet();
+                            }
+                            latency[n++] = System.nanoTime() - started;
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            }, "updater-" + u);
+            updater.setDaemon(true);
+            updater.start();
+        }
+
+        DistributionSummary groups = meterRegistry.summary("order.status.group-commit.size");
+        long groupsBefore = groups.count();
+        double updatesBefore = groups.totalAmount();
+        long started = System.nanoTime();
+        start.countDown();
+        done.await();
+        double seconds = (System.nanoTime() - started) / 1e9;
+        if (!report) {
+            return;
+        }
+
+        long[] all = Arrays.stream(latencies).flatMapToLong(Arrays::stream).sorted().toArray();
+        long committed = all.length - failures.get();
+        long transactions = groups.count() - groupsBefore;
+        System.out.printf("Group commit, %,d concurrent updaters, %,d updates: %,.0f commits/s, " +
+                        "%,.0f transactions/s (mean group %.1f), latency p50 %.1f ms, p99 %.1f ms, %d failed%n",
+                updaters, all.length, committed / seconds, transactions / seconds,
+                (groups.totalAmount() - updatesBefore) / Math.max(transactions, 1),
+                percentileMs(all, 0.50), percentileMs(all, 0.99), failures.get());
+    }
+
+    /**
+     * Inserts {@code updaters * ordersPerUpdater} CREATED orders with two items each, straight
+     * through JDBC, and hands each updater its own slice.
+     */
+    private long[][] createOrders(int updaters, int ordersPerUpdater) {
+        int count = updaters * ordersPerUpdater;
+        List<Long> ids = jdbcTemplate.queryForList(
+                "INSERT INTO orders (customer_id, total_amount, status, created_at, updated_at, event_version) " +
+                "SELECT 'customer-' || g, 50.00, 'CREATED', now(), now(), 0 FROM generate_series(1, ?) g RETURNING id",
+                Long.class, count);
+        jdbcTemplate.update(
+                "INSERT INTO order_items (order_id, product_id, quantity, price, subtotal, created_at) " +
+                "SELECT o.id, 'PROD-00' || p, 1, 25.00, 25.00, o.created_at FROM orders o " +
+                "CROSS JOIN generate_series(1, 2) p WHERE o.id BETWEEN ? AND ?",
+                ids.stream().mapToLong(Long::longValue).min().orElseThrow(),
+                ids.stream().mapToLong(Long::longValue).max().orElseThrow());
+        jdbcTemplate.execute("ANALYZE orders");
+        jdbcTemplate.execute("ANALYZE order_items");
+
+        long[][] slices = new long[updaters][ordersPerUpdater];
+        for (int i = 0; i < count; i++) {
+            slices[i / ordersPerUpdater][i % ordersPerUpdater] = ids.get(i);
+        }
+        return slices;
+    }
+
+    private static double percentileMs(long[] sorted, double percentile) {
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1);
+        return TimeUnit.NANOSECONDS.toMicros(sorted[Math.max(index, 0)]) / 1000.0;
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.paymentservice.archive;
+
+import com.example.common.partition.PartitionArchiveStore;
+import com.example.paymentservice.model.Payment;
+import com.example.paymentservice.model.PaymentStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Read-only access to payments whose monthly partitions have been archived and dropped.
+ */
+@Service
+public class PaymentArchive {
+    private final PartitionArchiveStore archiveStore;
+    private final JdbcTemplate jdbcTemplate;
+
+    public PaymentArchive(PartitionArchiveStore archiveStore, JdbcTemplate jdbcTemplate) {
+        this.archiveStore = archiveStore;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public Optional<Payment> findPayment(Long paymentId) {
+        return archiveStore.findOne(PaymentPartitionConfiguration.PAYMENTS, paymentId).map(this::toPayment);
+    }
+
+    public Optional<Payment> findByOrderId(Long orderId) {
+        return jdbcTemplate.queryForList("SELECT payment_id FROM payment_keys WHERE order_id = ?", Long.class, orderId)
+                .stream()
+                .findFirst()
+                .flatMap(this::findPayment);
+    }
+
+    private Payment toPayment(Map<String, Object> row) {
+        return Payment.builder()
+                .id((Long) row.get("id"))
+                .orderId((Long) row.get("order_id"))
+                .idempotencyKey((String) row.get("idempotency_key"))
+                .customerId((String) row.get("customer_id"))
+                .amount((BigDecimal) row.get("amount"))
+                .status(row.get("status") == null ? null : PaymentStatus.valueOf((String) row.get("status")))
+                .paymentMethod((String) row.get("payment_method"))
+                .transactionId((String) row.get("transaction_id"))
+                .createdAt((LocalDateTime) row.get("created_at"))
+                .updatedAt((LocalDateTime) row.get("updated_at"))
+                .build();
+    }
+}
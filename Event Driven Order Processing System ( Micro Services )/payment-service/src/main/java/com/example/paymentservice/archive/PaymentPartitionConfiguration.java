@@ -0,0 +1,42 @@
+package com.example.paymentservice.archive;
+
+import com.example.common.partition.PartitionedTable;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+/**
+ * Partitions {@code payments} by month. Unique constraints on a partitioned table must
+ * include {@code created_at}, so global uniqueness of order id and idempotency key moves to
+ * the small unpartitioned {@code payment_keys} table, filled by an insert trigger. A
+ * duplicate still fails the payment insert with a unique violation, and the table outlives
+ * archival, so it also maps order ids to archived payments.
+ */
+@Configuration
+public class PaymentPartitionConfiguration {
+    static final String PAYMENTS = "payments";
+
+    @Bean
+    public PartitionedTable paymentsTable() {
+        return new PartitionedTable(PAYMENTS, "id",
+                List.of(
+                        "CREATE TABLE IF NOT EXISTS payment_keys (" +
+                        "payment_id BIGINT PRIMARY KEY, " +
+                        "order_id BIGINT UNIQUE, " +
+                        "idempotency_key VARCHAR(64) UNIQUE, " +
+                        "created_at TIMESTAMP(6) NOT NULL)",
+                        "INSERT INTO payment_keys (payment_id, order_id, idempotency_key, created_at) " +
+                        "SELECT id, order_id, idempotency_key, COALESCE(created_at, now()) FROM payments " +
+                        "ON CONFLICT DO NOTHING"),
+                List.of(
+                        "CREATE OR REPLACE FUNCTION payments_register_key() RETURNS trigger AS $$ " +
+                        "BEGIN " +
+                        "INSERT INTO payment_keys (payment_id, order_id, idempotency_key, created_at) " +
+                        "VALUES (NEW.id, NEW.order_id, NEW.idempotency_key, NEW.created_at); " +
+                        "RETURN NEW; " +
+                        "END $$ LANGUAGE plpgsql",
+                        "CREATE OR REPLACE TRIGGER payments_register_key AFTER INSERT ON payments " +
+                        "FOR EACH ROW EXECUTE FUNCTION payments_register_key()"));
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.paymentservice.controller;
 
 import com.example.paymentservice.model.Payment;
+import com.example.paymentservice.service.PaymentIdempotencyService;
 import com.example.paymentservice.service.PaymentService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
@@ -12,10 +13,13 @@ import org.springframework.web.bind.annotation.*;
 @RequiredArgsConstructor
 public class PaymentController {
     private final PaymentService paymentService;
+    private final PaymentIdempotencyService paymentIdempotencyService;
     
     @PostMapping
-    public ResponseEntity<Payment> processPayment(@RequestBody Payment payment) {
-        Payment processedPayment = paymentService.processPayment(payment);
+    public ResponseEntity<Payment> processPayment(
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            @RequestBody Payment payment) {
+        Payment processedPayment = paymentIdempotencyService.processPayment(idempotencyKey, payment);
         return new ResponseEntity<>(processedPayment, HttpStatus.CREATED);
     }
     
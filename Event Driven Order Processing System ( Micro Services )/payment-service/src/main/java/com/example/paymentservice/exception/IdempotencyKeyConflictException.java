@@ -0,0 +1,11 @@
+package com.example.paymentservice.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.UNPROCESSABLE_ENTITY)
+public class IdempotencyKeyConflictException extends RuntimeException {
+    public IdempotencyKeyConflictException(String idempotencyKey) {
+        super("Idempotency key " + idempotencyKey + " was already used for a different order");
+    }
+}
@@ -10,7 +10,12 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "payments")
+@Table(name = "payments", indexes = {
+        @Index(name = "idx_payments_created_at", columnList = "created_at"),
+        @Index(name = "idx_payments_transaction_id", columnList = "transaction_id"),
+        @Index(name = "idx_payments_order_id", columnList = "order_id"),
+        @Index(name = "idx_payments_idempotency_key", columnList = "idempotency_key")
+})
 @Data
 @Builder
 @NoArgsConstructor
@@ -20,7 +25,12 @@ public class Payment {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    // Unique per payment, enforced through payment_keys since payments is partitioned
     private Long orderId;
+    
+    @Column(length = 64)
+    private String idempotencyKey;
+    
     private String customerId;
     private BigDecimal amount;
     
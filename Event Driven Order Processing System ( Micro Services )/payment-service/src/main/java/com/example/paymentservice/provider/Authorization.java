@@ -0,0 +1,13 @@
+package com.example.paymentservice.provider;
+
+import com.example.paymentservice.model.PaymentStatus;
+
+/**
+ * The provider's answer for one payment. {@code transactionId} is the provider's reference,
+ * the key settlement files are reconciled by; it is null when the provider was never reached.
+ */
+public record Authorization(PaymentStatus status, String transactionId) {
+    public static Authorization deferred() {
+        return new Authorization(PaymentStatus.PENDING, null);
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.paymentservice.provider;
+
+import com.example.paymentservice.model.Payment;
+
+import java.util.List;
+
+public interface PaymentProvider {
+    /**
+     * Authorises a batch of payments in one provider call and returns COMPLETED or FAILED,
+     * with the provider's transaction id, for each, in request order. Transport problems are
+     * signalled by throwing.
+     * <p>
+     * Every payment is sent under {@link #idempotencyKey(Payment)}, so authorising it again
+     * after a timeout returns the original outcome instead of charging a second time.
+     */
+    List<Authorization> authorizeBatch(List<Payment> payments);
+
+    default Authorization authorize(Payment payment) {
+        return authorizeBatch(List.of(payment)).get(0);
+    }
+
+    /**
+     * The key the provider deduplicates a payment by: stable across attempts and instances.
+     */
+    static String idempotencyKey(Payment payment) {
+        return "payment-" + payment.getId();
+    }
+}
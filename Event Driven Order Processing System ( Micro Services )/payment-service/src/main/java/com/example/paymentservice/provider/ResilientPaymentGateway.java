@@ -0,0 +1,41 @@
+package com.example.paymentservice.provider;
+
+import com.example.paymentservice.model.Payment;
+import io.github.resilience4j.bulkhead.annotation.Bulkhead;
+import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
+import io.github.resilience4j.timelimiter.annotation.TimeLimiter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Isolates provider calls from the web threads: calls run on a dedicated bulkhead pool,
+ * are bounded by a timeout, and fast-fail while the circuit is open. Any of those outcomes
+ * leaves the payment PENDING so it can be retried rather than marked FAILED. A timed-out
+ * call may still have been charged; the retry reuses the payment's provider idempotency key,
+ * so the provider returns that outcome instead of charging again.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class ResilientPaymentGateway {
+    private static final String PROVIDER = "paymentProvider";
+
+    private final PaymentProvider paymentProvider;
+
+    @CircuitBreaker(name = PROVIDER, fallbackMethod = "deferPayment")
+    @TimeLimiter(name = PROVIDER)
+    @Bulkhead(name = PROVIDER, type = Bulkhead.Type.THREADPOOL)
+    public CompletableFuture<List<Authorization>> authorizeBatch(List<Payment> payments) {
+        return CompletableFuture.completedFuture(paymentProvider.authorizeBatch(payments));
+    }
+
+    private CompletableFuture<List<Authorization>> deferPayment(List<Payment> payments, Throwable cause) {
+        log.warn("Payment provider unavailable, leaving {} payments pending: {}", payments.size(), cause.toString());
+        return CompletableFuture.completedFuture(Collections.nCopies(payments.size(), Authorization.deferred()));
+    }
+}
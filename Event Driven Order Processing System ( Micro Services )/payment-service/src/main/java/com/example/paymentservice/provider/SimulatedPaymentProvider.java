@@ -0,0 +1,85 @@
+package com.example.paymentservice.provider;
+
+import com.example.paymentservice.model.Payment;
+import com.example.paymentservice.model.PaymentStatus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Stand-in for the external provider. Each call costs a fixed overhead plus a per-item
+ * cost, so batching gains are measurable, and latency spikes can be injected through
+ * configuration to exercise the resilience settings in {@link ResilientPaymentGateway}.
+ * Like a real provider it remembers outcomes by idempotency key, so a retried payment is
+ * never charged twice; only the most recent {@code max-remembered-outcomes} are kept, which
+ * must comfortably exceed the number of payments that can be awaiting a retry.
+ */
+@Component
+public class SimulatedPaymentProvider implements PaymentProvider {
+    private final long latencyMs;
+    private final long perItemLatencyMs;
+    private final double spikeProbability;
+    private final long spikeLatencyMs;
+    private final double successRate;
+    private final int maxRememberedOutcomes;
+    private final Map<String, Authorization> outcomes = new ConcurrentHashMap<>();
+    private final Queue<String> insertionOrder = new ConcurrentLinkedQueue<>();
+
+    public SimulatedPaymentProvider(@Value("${payment.provider.latency-ms:1000}") long latencyMs,
+                                    @Value("${payment.provider.per-item-latency-ms:10}") long perItemLatencyMs,
+                                    @Value("${payment.provider.spike-probability:0.0}") double spikeProbability,
+                                    @Value("${payment.provider.spike-latency-ms:10000}") long spikeLatencyMs,
+                                    @Value("${payment.provider.success-rate:0.9}") double successRate,
+                                    @Value("${payment.provider.max-remembered-outcomes:100000}") int maxRememberedOutcomes) {
+        this.latencyMs = latencyMs;
+        this.perItemLatencyMs = perItemLatencyMs;
+        this.spikeProbability = spikeProbability;
+        this.spikeLatencyMs = spikeLatencyMs;
+        this.successRate = successRate;
+        this.maxRememberedOutcomes = maxRememberedOutcomes;
+    }
+
+    @Override
+    public List<Authorization> authorizeBatch(List<Payment> payments) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long overhead = random.nextDouble() < spikeProbability ? spikeLatencyMs : latencyMs;
+        try {
+            Thread.sleep(overhead + perItemLatencyMs * payments.size()); // Simulate processing time
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Payment provider call interrupted", e);
+        }
+        List<Authorization> authorizations = new ArrayList<>(payments.size());
+        for (Payment payment : payments) {
+            String key = PaymentProvider.idempotencyKey(payment);
+            Authorization outcome = new Authorization(
+                    random.nextDouble() < successRate ? PaymentStatus.COMPLETED : PaymentStatus.FAILED,
+                    "txn-" + UUID.randomUUID());
+            Authorization existing = outcomes.putIfAbsent(key, outcome);
+            if (existing == null) {
+                remember(key);
+            }
+            authorizations.add(existing != null ? existing : outcome);
+        }
+        return authorizations;
+    }
+
+    private void remember(String key) {
+        insertionOrder.add(key);
+        while (outcomes.size() > maxRememberedOutcomes) {
+            String eldest = insertionOrder.poll();
+            if (eldest == null) {
+                break;
+            }
+            outcomes.remove(eldest);
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package com.example.paymentservice.reconciliation;
+
+import com.example.paymentservice.model.PaymentStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.Properties;
+import java.util.stream.Stream;
+
+/**
+ * Reconciles payments against a provider settlement file in constant memory. Both sides are
+ * streamed in transaction id order (a server-side cursor for the database, a line reader for
+ * the file) and merge-joined; discrepancies are appended to a CSV as they are found.
+ * Progress is checkpointed so that a crashed run resumes where it stopped.
+ */
+@Service
+@Slf4j
+public class PaymentReconciliationService {
+    private static final String PAYMENTS_SQL =
+            "SELECT transaction_id, id, order_id, amount, status FROM payments " +
+            "WHERE created_at >= ? AND created_at < ? AND transaction_id IS NOT NULL AND transaction_id COLLATE \"C\" > ? " +
+            // Binary collation so the database order matches String.compareTo used by the merge
+            "ORDER BY transaction_id COLLATE \"C\"";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Path settlementDir;
+    private final Path outputDir;
+    private final int checkpointInterval;
+
+    public PaymentReconciliationService(DataSource dataSource,
+                                        PlatformTransactionManager transactionManager,
+                                        @Value("${payment.reconciliation.settlement-dir:settlements}") String settlementDir,
+                                        @Value("${payment.reconciliation.output-dir:reconciliation}") String outputDir,
+                                        @Value("${payment.reconciliation.fetch-size:1000}") int fetchSize,
+                                        @Value("${payment.reconciliation.checkpoint-interval:10000}") int checkpointInterval) {
+        // Dedicated template so the cursor fetch size does not leak into other queries
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.settlementDir = Paths.get(settlementDir);
+        this.outputDir = Paths.get(outputDir);
+        this.checkpointInterval = checkpointInterval;
+    }
+
+    @Scheduled(cron = "${payment.reconciliation.cron:0 30 2 * * *}")
+    public void reconcilePreviousDay() {
+        LocalDate day = LocalDate.now().minusDays(1);
+        Path settlementFile = settlementDir.resolve("settlement-" + day + ".csv");
+        if (!Files.exists(settlementFile)) {
+            log.warn("No settlement file for {} at {}, skipping reconciliation", day, settlementFile);
+            return;
+        }
+        reconcile(day, day.plusDays(1), settlementFile, outputDir.resolve("discrepancies-" + day + ".csv"));
+    }
+
+    /**
+     * Reconciles payments created in {@code [from, to)} against a settlement file sorted by
+     * transaction id, writing discrepancies to {@code outputFile}. An unsorted file fails the
+     * run with an {@link IllegalStateException}.
+     */
+    public ReconciliationResult reconcile(LocalDate from, LocalDate to, Path settlementFile, Path outputFile) {
+        Path checkpointFile = outputFile.resolveSibling(outputFile.getFileName() + ".checkpoint");
+        Checkpoint checkpoint = readCheckpoint(checkpointFile);
+        boolean resumed = checkpoint != null;
+        Checkpoint progress = resumed ? checkpoint : new Checkpoint("", 0, 0, 0);
+        if (resumed) {
+            log.info("Resuming reconciliation for {} after transactionId {}", from, progress.lastTransactionId());
+        }
+
+        ReconciliationResult result = readOnlyTransaction.execute(status -> {
+            try (Stream<PaymentRecord> payments = jdbcTemplate.queryForStream(PAYMENTS_SQL,
+                         (rs, rowNum) -> new PaymentRecord(
+                                 rs.getString("transaction_id"),
+                                 rs.getLong("id"),
+                                 rs.getLong("order_id"),
+                                 rs.getBigDecimal("amount"),
+                                 PaymentStatus.valueOf(rs.getString("status"))),
+                         Timestamp.valueOf(from.atStartOfDay()),
+                         Timestamp.valueOf(to.atStartOfDay()),
+                         progress.lastTransactionId());
+                 BufferedReader settlementReader = Files.newBufferedReader(settlementFile, StandardCharsets.UTF_8);
+                 FileChannel outputChannel = openOutput(outputFile, progress.outputPosition());
+                 BufferedWriter writer = new BufferedWriter(
+                         new OutputStreamWriter(Channels.newOutputStream(outputChannel), StandardCharsets.UTF_8))) {
+                if (progress.outputPosition() == 0) {
+                    writer.write("transaction_id,type,payment_id,order_id,payment_amount,settled_amount,payment_status,settled_status");
+                    writer.newLine();
+                }
+                return merge(payments.iterator(), settlements(settlementReader, progress.lastTransactionId()),
+                        writer, outputChannel, checkpointFile, progress, resumed);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+
+        try {
+            Files.deleteIfExists(checkpointFile);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        log.info("Reconciliation for [{}, {}) finished: {} matched, {} discrepancies",
+                from, to, result.matched(), result.discrepancies());
+        return result;
+    }
+
+    private ReconciliationResult merge(Iterator<PaymentRecord> payments, Iterator<SettlementRecord> settlements,
+                                       BufferedWriter writer, FileChannel outputChannel, Path checkpointFile,
+                                       Checkpoint progress, boolean resumed) throws IOException {
+        long matched = progress.matched();
+        long discrepancies = progress.discrepancies();
+        long processed = 0;
+        String lastTransactionId = progress.lastTransactionId();
+
+        PaymentRecord payment = next(payments);
+        SettlementRecord settlement = next(settlements);
+        while (payment != null || settlement != null) {
+            int order = payment == null ? 1
+                    : settlement == null ? -1
+                    : payment.transactionId().compareTo(settlement.transactionId());
+            if (order < 0) {
+                writeDiscrepancy(writer, payment.transactionId(), "MISSING_IN_SETTLEMENT", payment, null);
+                discrepancies++;
+                lastTransactionId = payment.transactionId();
+                payment = next(payments);
+            } else if (order > 0) {
+                writeDiscrepancy(writer, settlement.transactionId(), "MISSING_IN_PAYMENTS", null, settlement);
+                discrepancies++;
+                lastTransactionId = settlement.transactionId();
+                settlement = next(settlements);
+            } else {
+                if (payment.amount().compareTo(settlement.amount()) != 0) {
+                    writeDiscrepancy(writer, payment.transactionId(), "AMOUNT_MISMATCH", payment, settlement);
+                    discrepancies++;
+                } else if (!payment.status().name().equalsIgnoreCase(settlement.status())) {
+                    writeDiscrepancy(writer, payment.transactionId(), "STATUS_MISMATCH", payment, settlement);
+                    discrepancies++;
+                } else {
+                    matched++;
+                }
+                lastTransactionId = payment.transactionId();
+                payment = next(payments);
+                settlement = next(settlements);
+            }
+
+            if (++processed % checkpointInterval == 0) {
+                writer.flush();
+                writeCheckpoint(checkpointFile,
+                        new Checkpoint(lastTransactionId, matched, discrepancies, outputChannel.position()));
+            }
+        }
+        writer.flush();
+        return new ReconciliationResult(matched, discrepancies, resumed);
+    }
+
+    /**
+     * Streams the settlement file after {@code after}, failing the run on the first line that
+     * breaks transaction id order: the merge would otherwise report every payment from there
+     * on as missing.
+     */
+    private Iterator<SettlementRecord> settlements(BufferedReader reader, String after) {
+        long[] lineNumber = {0};
+        String[] previous = {null};
+        return reader.lines()
+                .peek(line -> lineNumber[0]++)
+                .filter(line -> !line.isBlank() && !line.startsWith("transaction_id"))
+                .map(SettlementRecord::parse)
+                .peek(record -> {
+                    if (previous[0] != null && record.transactionId().compareTo(previous[0]) <= 0) {
+                        throw new IllegalStateException("Settlement file is not sorted by transaction id at line "
+                                + lineNumber[0] + ": " + record.transactionId() + " follows " + previous[0]);
+                    }
+                    previous[0] = record.transactionId();
+                })
+                .filter(record -> record.transactionId().compareTo(after) > 0)
+                .iterator();
+    }
+
+    private void writeDiscrepancy(BufferedWriter writer, String transactionId, String type,
+                                  PaymentRecord payment, SettlementRecord settlement) throws IOException {
+        writer.write(String.join(",",
+                transactionId,
+                type,
+                payment == null ? "" : String.valueOf(payment.paymentId()),
+                payment == null ? "" : String.valueOf(payment.orderId()),
+                payment == null ? "" : payment.amount().toPlainString(),
+                settlement == null ? "" : settlement.amount().toPlainString(),
+                payment == null ? "" : payment.status().name(),
+                settlement == null ? "" : settlement.status()));
+        writer.newLine();
+    }
+
+    private FileChannel openOutput(Path outputFile, long position) throws IOException {
+        Files.createDirectories(outputFile.toAbsolutePath().getParent());
+        FileChannel channel = FileChannel.open(outputFile,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        // Drop anything written after the last checkpoint so resumed output has no duplicates
+        channel.truncate(position);
+        channel.position(position);
+        return channel;
+    }
+
+    private Checkpoint readCheckpoint(Path checkpointFile) {
+        if (!Files.exists(checkpointFile)) {
+            return null;
+        }
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(checkpointFile, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new Checkpoint(
+                properties.getProperty("lastTransactionId"),
+                Long.parseLong(properties.getProperty("matched")),
+                Long.parseLong(properties.getProperty("discrepancies")),
+                Long.parseLong(properties.getProperty("outputPosition")));
+    }
+
+    private void writeCheckpoint(Path checkpointFile, Checkpoint checkpoint) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty("lastTransactionId", checkpoint.lastTransactionId());
+        properties.setProperty("matched", String.valueOf(checkpoint.matched()));
+        properties.setProperty("discrepancies", String.valueOf(checkpoint.discrepancies()));
+        properties.setProperty("outputPosition", String.valueOf(checkpoint.outputPosition()));
+        Path temp = checkpointFile.resolveSibling(checkpointFile.getFileName() + ".tmp");
+        try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            properties.store(writer, null);
+        }
+        Files.move(temp, checkpointFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static <T> T next(Iterator<T> iterator) {
+        return iterator.hasNext() ? iterator.next() : null;
+    }
+
+    private record Checkpoint(String lastTransactionId, long matched, long discrepancies, long outputPosition) {
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.paymentservice.reconciliation;
+
+import com.example.paymentservice.model.PaymentStatus;
+
+import java.math.BigDecimal;
+
+/**
+ * Flat projection of a payment row used by reconciliation, so no entities are managed.
+ */
+public record PaymentRecord(String transactionId, Long paymentId, Long orderId, BigDecimal amount,
+                            PaymentStatus status) {
+}
@@ -0,0 +1,4 @@
+package com.example.paymentservice.reconciliation;
+
+public record ReconciliationResult(long matched, long discrepancies, boolean resumed) {
+}
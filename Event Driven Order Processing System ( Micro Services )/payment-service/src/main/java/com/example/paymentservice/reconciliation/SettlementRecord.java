@@ -0,0 +1,16 @@
+package com.example.paymentservice.reconciliation;
+
+import java.math.BigDecimal;
+
+/**
+ * One line of a provider settlement file: {@code transaction_id,amount,status}.
+ */
+public record SettlementRecord(String transactionId, BigDecimal amount, String status) {
+    static SettlementRecord parse(String line) {
+        String[] fields = line.split(",", -1);
+        if (fields.length < 3) {
+            throw new IllegalArgumentException("Malformed settlement line: " + line);
+        }
+        return new SettlementRecord(fields[0].trim(), new BigDecimal(fields[1].trim()), fields[2].trim());
+    }
+}
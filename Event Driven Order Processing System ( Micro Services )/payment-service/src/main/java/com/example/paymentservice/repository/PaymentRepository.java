@@ -1,12 +1,41 @@
 package com.example.paymentservice.repository;
 
 import com.example.paymentservice.model.Payment;
+import com.example.paymentservice.model.PaymentStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface PaymentRepository extends JpaRepository<Payment, Long> {
     Optional<Payment> findByOrderId(Long orderId);
+    Optional<Payment> findByIdempotencyKey(String idempotencyKey);
+    
+    /**
+     * Claims retryable payments for the caller's transaction: every PENDING payment, and
+     * PROCESSING ones last touched before {@code staleBefore}, whose batch was lost to a
+     * failed commit or a crash. Rows another instance has already locked are skipped.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = AvailableSettings.JAKARTA_LOCK_TIMEOUT, value = "-2"))
+    @Query("SELECT p FROM Payment p WHERE p.status = :pending " +
+            "OR (p.status = :processing AND p.updatedAt < :staleBefore) ORDER BY p.createdAt")
+    List<Payment> findRetryable(PaymentStatus pending, PaymentStatus processing, LocalDateTime staleBefore,
+                                Pageable page);
+    
+    @Modifying
+    @Query("UPDATE Payment p SET p.status = :status, p.updatedAt = :updatedAt WHERE p.id IN :ids")
+    int updateStatuses(Collection<Long> ids, PaymentStatus status, LocalDateTime updatedAt);
 } 
\ No newline at end of file
@@ -0,0 +1,221 @@
+package com.example.paymentservice.service;
+
+import com.example.paymentservice.event.PaymentEvent;
+import com.example.paymentservice.model.Payment;
+import com.example.paymentservice.model.PaymentStatus;
+import com.example.paymentservice.provider.Authorization;
+import com.example.paymentservice.provider.ResilientPaymentGateway;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Collects concurrent payment requests into micro-batches: each batch is one provider call,
+ * its status changes and provider transaction ids are written as one JDBC batch, and each
+ * caller's future completes once the batch has been committed. A batch that fails fails only
+ * its own callers, and a caller stops waiting after {@code timeout-ms}.
+ */
+@Service
+@Slf4j
+public class PaymentBatchProcessor {
+    private static final String PAYMENT_TOPIC = "payment-events";
+    private static final String UPDATE_SQL =
+            "UPDATE payments SET status = ?, transaction_id = COALESCE(?, transaction_id), updated_at = ? WHERE id = ?";
+
+    private final ResilientPaymentGateway paymentGateway;
+    private final JdbcTemplate jdbcTemplate;
+    private final KafkaTemplate<String, PaymentEvent> kafkaTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObservationRegistry observationRegistry;
+    private final int maxBatchSize;
+    private final long maxWaitMicros;
+    private final long timeoutMs;
+    private final BlockingQueue<BatchEntry> queue;
+    private final Thread dispatcher;
+    private volatile boolean running = true;
+
+    public PaymentBatchProcessor(ResilientPaymentGateway paymentGateway,
+                                 DataSource dataSource,
+                                 KafkaTemplate<String, PaymentEvent> kafkaTemplate,
+                                 TransactionTemplate transactionTemplate,
+                                 ObservationRegistry observationRegistry,
+                                 @Value("${payment.batch.max-size:50}") int maxBatchSize,
+                                 @Value("${payment.batch.max-wait-ms:5}") long maxWaitMs,
+                                 @Value("${payment.batch.queue-capacity:10000}") int queueCapacity,
+                                 @Value("${payment.batch.timeout-ms:10000}") long timeoutMs) {
+        this.paymentGateway = paymentGateway;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.kafkaTemplate = kafkaTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.observationRegistry = observationRegistry;
+        this.maxBatchSize = maxBatchSize;
+        this.maxWaitMicros = TimeUnit.MILLISECONDS.toMicros(maxWaitMs);
+        this.timeoutMs = timeoutMs;
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+        this.dispatcher = new Thread(this::dispatchLoop, "payment-batch-dispatcher");
+        this.dispatcher.setDaemon(true);
+        this.dispatcher.start();
+    }
+
+    /**
+     * Queues a persisted payment for authorisation. The returned future completes with the
+     * payment carrying its final status once that status is committed, or fails with a
+     * {@link java.util.concurrent.TimeoutException} after {@code timeout-ms}; the payment is
+     * then still PROCESSING and is picked up by the stale-payment retry.
+     */
+    public CompletableFuture<Payment> submit(Payment payment) {
+        BatchEntry entry = new BatchEntry(payment, payment.getStatus(),
+                observationRegistry.getCurrentObservation(), new CompletableFuture<>());
+        if (!queue.offer(entry)) {
+            // Saturated: park the payment for the retry job rather than blocking the caller
+            complete(List.of(entry), List.of(Authorization.deferred()));
+        }
+        return entry.result().orTimeout(timeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        dispatcher.interrupt();
+    }
+
+    private void dispatchLoop() {
+        while (running) {
+            List<BatchEntry> batch;
+            try {
+                batch = nextBatch();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            try {
+                dispatch(batch);
+            } catch (RuntimeException e) {
+                // Fail only this batch; the dispatcher must keep serving later ones
+                log.error("Failed to dispatch payment batch of {}", batch.size(), e);
+                batch.forEach(entry -> entry.result().completeExceptionally(e));
+            }
+        }
+    }
+
+    private void dispatch(List<BatchEntry> batch) {
+        List<Payment> payments = batch.stream().map(BatchEntry::payment).collect(Collectors.toList());
+        // One provider call serves the whole batch; its span is attributed to the first caller's trace
+        Observation providerCall = Observation.createNotStarted("payment.provider.authorize", observationRegistry)
+                .parentObservation(batch.get(0).parent())
+                .lowCardinalityKeyValue("batch.size", String.valueOf(batch.size()))
+                .start();
+        // The gateway runs on its own bulkhead pool, so keep collecting while the provider works
+        paymentGateway.authorizeBatch(payments)
+                .whenComplete((authorizations, e) -> {
+                    if (e != null) {
+                        providerCall.error(e);
+                    }
+                    providerCall.stop();
+                })
+                .thenAccept(authorizations -> complete(batch, authorizations))
+                .exceptionally(e -> {
+                    batch.forEach(entry -> entry.result().completeExceptionally(e));
+                    return null;
+                });
+    }
+
+    private List<BatchEntry> nextBatch() throws InterruptedException {
+        List<BatchEntry> batch = new ArrayList<>(maxBatchSize);
+        batch.add(queue.take());
+        long deadline = System.nanoTime() + TimeUnit.MICROSECONDS.toNanos(maxWaitMicros);
+        while (batch.size() < maxBatchSize) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                queue.drainTo(batch, maxBatchSize - batch.size());
+                break;
+            }
+            BatchEntry next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                break;
+            }
+            batch.add(next);
+        }
+        return batch;
+    }
+
+    private void complete(List<BatchEntry> batch, List<Authorization> authorizations) {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            List<BatchEntry> changed = new ArrayList<>();
+            for (int i = 0; i < batch.size(); i++) {
+                BatchEntry entry = batch.get(i);
+                Authorization authorization = authorizations.get(i);
+                entry.payment().setStatus(authorization.status());
+                if (authorization.transactionId() != null) {
+                    entry.payment().setTransactionId(authorization.transactionId());
+                }
+                if (authorization.status() != entry.previousStatus()) {
+                    entry.payment().setUpdatedAt(now);
+                    changed.add(entry);
+                }
+            }
+
+            Timestamp updatedAt = Timestamp.valueOf(now);
+            transactionTemplate.executeWithoutResult(tx -> jdbcTemplate.batchUpdate(UPDATE_SQL, changed, changed.size(),
+                    (statement, entry) -> {
+                        statement.setString(1, entry.payment().getStatus().name());
+                        statement.setString(2, entry.payment().getTransactionId());
+                        statement.setTimestamp(3, updatedAt);
+                        statement.setLong(4, entry.payment().getId());
+                    }));
+
+            // Sent in each caller's observation scope so the event carries that caller's trace context
+            changed.forEach(entry -> scoped(entry.parent(), () -> kafkaTemplate.send(PAYMENT_TOPIC,
+                    String.valueOf(entry.payment().getOrderId()), createPaymentEvent(entry.payment()))));
+
+            log.debug("Completed payment batch of {} ({} status changes)", batch.size(), changed.size());
+            batch.forEach(entry -> entry.result().complete(entry.payment()));
+        } catch (RuntimeException e) {
+            log.error("Failed to persist payment batch of {}", batch.size(), e);
+            batch.forEach(entry -> entry.result().completeExceptionally(e));
+        }
+    }
+
+    private static void scoped(Observation parent, Runnable action) {
+        if (parent == null) {
+            action.run();
+        } else {
+            parent.scoped(action);
+        }
+    }
+
+    private PaymentEvent createPaymentEvent(Payment payment) {
+        return PaymentEvent.builder()
+                .paymentId(payment.getId())
+                .orderId(payment.getOrderId())
+                .customerId(payment.getCustomerId())
+                .amount(payment.getAmount())
+                .status(payment.getStatus())
+                .paymentMethod(payment.getPaymentMethod())
+                .transactionId(payment.getTransactionId())
+                .timestamp(LocalDateTime.now())
+                .build();
+    }
+
+    private record BatchEntry(Payment payment, PaymentStatus previousStatus, Observation parent,
+                              CompletableFuture<Payment> result) {
+    }
+}
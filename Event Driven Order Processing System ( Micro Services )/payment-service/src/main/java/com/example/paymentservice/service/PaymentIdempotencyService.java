@@ -0,0 +1,111 @@
+package com.example.paymentservice.service;
+
+import com.example.paymentservice.exception.IdempotencyKeyConflictException;
+import com.example.paymentservice.model.Payment;
+import com.example.paymentservice.model.PaymentStatus;
+import com.example.paymentservice.repository.PaymentRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Deduplicates payment requests by idempotency key. Results are kept in memory for O(1)
+ * replay, concurrent duplicates join the in-flight future, and the unique key column on
+ * {@code payments} covers duplicates that arrive at another instance or after eviction.
+ */
+@Service
+@Slf4j
+public class PaymentIdempotencyService {
+    private final PaymentService paymentService;
+    private final PaymentRepository paymentRepository;
+    private final int maxCachedResults;
+    private final Map<String, CompletableFuture<Payment>> results = new ConcurrentHashMap<>();
+    private final Queue<String> insertionOrder = new ConcurrentLinkedQueue<>();
+
+    public PaymentIdempotencyService(PaymentService paymentService,
+                                     PaymentRepository paymentRepository,
+                                     @Value("${payment.idempotency.cache-size:100000}") int maxCachedResults) {
+        this.paymentService = paymentService;
+        this.paymentRepository = paymentRepository;
+        this.maxCachedResults = maxCachedResults;
+    }
+
+    public Payment processPayment(String idempotencyKey, Payment payment) {
+        String key = idempotencyKey != null ? idempotencyKey : "order-" + payment.getOrderId();
+
+        CompletableFuture<Payment> pending = new CompletableFuture<>();
+        CompletableFuture<Payment> existing = results.putIfAbsent(key, pending);
+        if (existing != null) {
+            log.debug("Replaying payment result for idempotency key: {}", key);
+            return verify(key, payment, join(existing));
+        }
+
+        try {
+            Payment result = paymentRepository.findByIdempotencyKey(key)
+                    .orElseGet(() -> processNew(key, payment));
+            pending.complete(result);
+            if (result.getStatus() == PaymentStatus.PENDING || result.getStatus() == PaymentStatus.PROCESSING) {
+                // Not settled yet; later retries should see the row once it is
+                results.remove(key, pending);
+            } else {
+                remember(key);
+            }
+            return verify(key, payment, result);
+        } catch (RuntimeException e) {
+            // Failures are not cached so the client can retry with the same key
+            results.remove(key, pending);
+            pending.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private Payment processNew(String key, Payment payment) {
+        payment.setIdempotencyKey(key);
+        try {
+            return paymentService.processPayment(payment);
+        } catch (DataIntegrityViolationException e) {
+            // Another instance won the race for this key or order
+            return paymentRepository.findByIdempotencyKey(key)
+                    .or(() -> paymentRepository.findByOrderId(payment.getOrderId()))
+                    .orElseThrow(() -> e);
+        }
+    }
+
+    private Payment verify(String key, Payment request, Payment stored) {
+        if (request.getOrderId() != null && !Objects.equals(request.getOrderId(), stored.getOrderId())) {
+            throw new IdempotencyKeyConflictException(key);
+        }
+        return stored;
+    }
+
+    private void remember(String key) {
+        insertionOrder.add(key);
+        while (results.size() > maxCachedResults) {
+            String eldest = insertionOrder.poll();
+            if (eldest == null) {
+                break;
+            }
+            results.remove(eldest);
+        }
+    }
+
+    private Payment join(CompletableFuture<Payment> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
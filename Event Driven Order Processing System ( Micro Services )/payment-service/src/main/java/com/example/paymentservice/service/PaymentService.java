@@ -1,84 +1,125 @@
 package com.example.paymentservice.service;
 
-import com.example.paymentservice.event.PaymentEvent;
+import com.example.common.jdbc.ReadFromPrimary;
+import com.example.paymentservice.archive.PaymentArchive;
 import com.example.paymentservice.model.Payment;
 import com.example.paymentservice.model.PaymentStatus;
 import com.example.paymentservice.repository.PaymentRepository;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
 
 @Service
 @Slf4j
-@RequiredArgsConstructor
 public class PaymentService {
+    private static final int RETRY_BATCH_SIZE = 100;
+
     private final PaymentRepository paymentRepository;
-    private final KafkaTemplate<String, PaymentEvent> kafkaTemplate;
-    
-    private static final String PAYMENT_TOPIC = "payment-events";
+    private final PaymentBatchProcessor paymentBatchProcessor;
+    private final PaymentArchive paymentArchive;
+    private final ObservationRegistry observationRegistry;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration processingStaleAfter;
+
+    public PaymentService(PaymentRepository paymentRepository,
+                          PaymentBatchProcessor paymentBatchProcessor,
+                          PaymentArchive paymentArchive,
+                          ObservationRegistry observationRegistry,
+                          TransactionTemplate transactionTemplate,
+                          @Value("${payment.retry.processing-stale-after-ms:120000}") long processingStaleAfterMs) {
+        this.paymentRepository = paymentRepository;
+        this.paymentBatchProcessor = paymentBatchProcessor;
+        this.paymentArchive = paymentArchive;
+        this.observationRegistry = observationRegistry;
+        this.transactionTemplate = transactionTemplate;
+        this.processingStaleAfter = Duration.ofMillis(processingStaleAfterMs);
+    }
     
-    @Transactional
+    /**
+     * Persists the payment as PROCESSING, then waits for its micro-batch to be authorised and
+     * committed. Not transactional: the row must be visible to the batch update. If the batch
+     * has not committed within {@code payment.batch.timeout-ms} the payment is returned as
+     * PROCESSING; its outcome is not known yet, and the stale-payment retry settles it.
+     */
     public Payment processPayment(Payment payment) {
         payment.setStatus(PaymentStatus.PROCESSING);
         Payment savedPayment = paymentRepository.save(payment);
         
-        // Simulate payment processing
-        boolean paymentSuccessful = processPaymentWithProvider(payment);
-        
-        if (paymentSuccessful) {
-            savedPayment.setStatus(PaymentStatus.COMPLETED);
-        } else {
-            savedPayment.setStatus(PaymentStatus.FAILED);
+        // Provider outages and timeouts leave the payment PENDING for retryPendingPayments
+        Payment submitted = savedPayment;
+        try {
+            savedPayment = Observation.createNotStarted("payment.batch.await", observationRegistry)
+                    .observe(() -> paymentBatchProcessor.submit(submitted).join());
+        } catch (CompletionException e) {
+            if (!(e.getCause() instanceof TimeoutException)) {
+                throw e;
+            }
+            log.warn("Payment {} for orderId: {} not settled in time, leaving it PROCESSING",
+                    submitted.getId(), submitted.getOrderId());
+            return submitted;
         }
         
-        savedPayment = paymentRepository.save(savedPayment);
-        
-        // Publish payment event
-        PaymentEvent paymentEvent = createPaymentEvent(savedPayment);
-        kafkaTemplate.send(PAYMENT_TOPIC, String.valueOf(savedPayment.getOrderId()), paymentEvent);
-        
-        log.info("Payment processed and event published for orderId: {}", savedPayment.getOrderId());
+        log.info("Payment processed with status {} for orderId: {}", savedPayment.getStatus(), savedPayment.getOrderId());
         return savedPayment;
     }
     
     @Cacheable(value = "payments", key = "#paymentId")
+    @ReadFromPrimary
+    @Transactional(readOnly = true)
     public Payment getPayment(Long paymentId) {
         return paymentRepository.findById(paymentId)
+                .or(() -> paymentArchive.findPayment(paymentId))
                 .orElseThrow(() -> new RuntimeException("Payment not found"));
     }
     
+    @Transactional(readOnly = true)
     public Payment getPaymentByOrderId(Long orderId) {
+        // Payments older than the retention window live only in the partition archive
         return paymentRepository.findByOrderId(orderId)
+                .or(() -> paymentArchive.findByOrderId(orderId))
                 .orElseThrow(() -> new RuntimeException("Payment not found for order"));
     }
     
-    private boolean processPaymentWithProvider(Payment payment) {
-        // Simulate payment processing with external provider
-        try {
-            Thread.sleep(1000); // Simulate processing time
-            // In a real implementation, this would integrate with a payment provider
-            return Math.random() > 0.1; // 90% success rate
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            return false;
+    /**
+     * Claims PENDING payments, and PROCESSING ones stuck for longer than
+     * {@code payment.retry.processing-stale-after-ms}, by moving them to PROCESSING under a
+     * SKIP LOCKED lock, so instances running this job concurrently never re-authorise the
+     * same payment. Re-authorising is safe because the provider deduplicates by payment.
+     */
+    @Scheduled(fixedDelayString = "${payment.retry.interval-ms:30000}")
+    public void retryPendingPayments() {
+        List<Payment> claimed = transactionTemplate.execute(tx -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<Payment> pending = paymentRepository.findRetryable(PaymentStatus.PENDING, PaymentStatus.PROCESSING,
+                    now.minus(processingStaleAfter), PageRequest.of(0, RETRY_BATCH_SIZE));
+            if (!pending.isEmpty()) {
+                paymentRepository.updateStatuses(pending.stream().map(Payment::getId).toList(), PaymentStatus.PROCESSING, now);
+            }
+            return pending;
+        });
+        if (claimed.isEmpty()) {
+            return;
         }
+        // Detached now; match the claimed state so the batch writes whatever the provider returns
+        claimed.forEach(payment -> payment.setStatus(PaymentStatus.PROCESSING));
+        CompletableFuture.allOf(claimed.stream()
+                        .map(paymentBatchProcessor::submit)
+                        .toArray(CompletableFuture[]::new))
+                .join();
+        log.info("Retried {} pending payments", claimed.size());
     }
-    
-    private PaymentEvent createPaymentEvent(Payment payment) {
-        return PaymentEvent.builder()
-                .paymentId(payment.getId())
-                .orderId(payment.getOrderId())
-                .customerId(payment.getCustomerId())
-                .amount(payment.getAmount())
-                .status(payment.getStatus())
-                .paymentMethod(payment.getPaymentMethod())
-                .transactionId(payment.getTransactionId())
-                .timestamp(LocalDateTime.now())
-                .build();
-    }
-} 
\ No newline at end of file
+}
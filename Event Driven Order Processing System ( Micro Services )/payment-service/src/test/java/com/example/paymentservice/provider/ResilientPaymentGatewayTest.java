@@ -0,0 +1,143 @@
+package com.example.paymentservice.provider;
+
+import com.example.paymentservice.model.Payment;
+import com.example.paymentservice.model.PaymentStatus;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkhead;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.springboot3.bulkhead.autoconfigure.BulkheadAutoConfiguration;
+import io.github.resilience4j.springboot3.circuitbreaker.autoconfigure.CircuitBreakerAutoConfiguration;
+import io.github.resilience4j.springboot3.timelimiter.autoconfigure.TimeLimiterAutoConfiguration;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.aop.AopAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Drives the gateway's resilience settings through {@link SimulatedPaymentProvider} with
+ * every call slowed past the time limit.
+ */
+@SpringBootTest(classes = {ResilientPaymentGateway.class, SimulatedPaymentProvider.class}, properties = {
+        "payment.provider.latency-ms=0",
+        "payment.provider.per-item-latency-ms=0",
+        "payment.provider.spike-probability=1.0",
+        "payment.provider.spike-latency-ms=500",
+        "payment.provider.success-rate=1.0",
+        "resilience4j.timelimiter.instances.paymentProvider.timeout-duration=200ms",
+        "resilience4j.circuitbreaker.instances.paymentProvider.sliding-window-size=4",
+        "resilience4j.circuitbreaker.instances.paymentProvider.minimum-number-of-calls=4",
+        "resilience4j.circuitbreaker.instances.paymentProvider.wait-duration-in-open-state=60s",
+        "resilience4j.circuitbreaker.instances.paymentProvider.automatic-transition-from-open-to-half-open-enabled=false",
+        "resilience4j.thread-pool-bulkhead.instances.paymentProvider.core-thread-pool-size=2",
+        "resilience4j.thread-pool-bulkhead.instances.paymentProvider.max-thread-pool-size=2",
+        "resilience4j.thread-pool-bulkhead.instances.paymentProvider.queue-capacity=1"
+})
+@ImportAutoConfiguration({AopAutoConfiguration.class, CircuitBreakerAutoConfiguration.class,
+        TimeLimiterAutoConfiguration.class, BulkheadAutoConfiguration.class})
+class ResilientPaymentGatewayTest {
+    private static final String PROVIDER = "paymentProvider";
+
+    @Autowired
+    private ResilientPaymentGateway gateway;
+
+    @Autowired
+    private CircuitBreakerRegistry circuitBreakerRegistry;
+
+    @Autowired
+    private TimeLimiterRegistry timeLimiterRegistry;
+
+    @Autowired
+    private ThreadPoolBulkheadRegistry bulkheadRegistry;
+
+    private final AtomicInteger paymentIds = new AtomicInteger();
+
+    @BeforeEach
+    void resetCircuitAndWaitForIdleBulkhead() throws InterruptedException {
+        circuitBreakerRegistry.circuitBreaker(PROVIDER).reset();
+        // A timed-out call keeps its bulkhead thread until the provider returns
+        awaitBulkhead(0, 0);
+    }
+
+    @Test
+    void timedOutCallLeavesPaymentsPending() {
+        AtomicInteger timeouts = new AtomicInteger();
+        timeLimiterRegistry.timeLimiter(PROVIDER).getEventPublisher().onTimeout(event -> timeouts.incrementAndGet());
+
+        long started = System.nanoTime();
+        List<Authorization> authorizations = gateway.authorizeBatch(List.of(payment(), payment())).join();
+        long elapsedMs = (System.nanoTime() - started) / 1_000_000;
+
+        assertThat(authorizations).containsExactly(Authorization.deferred(), Authorization.deferred());
+        assertThat(timeouts).hasValue(1);
+        assertThat(elapsedMs).isLessThan(500);
+    }
+
+    @Test
+    void circuitOpensAfterRepeatedTimeoutsAndThenFailsFast() {
+        CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker(PROVIDER);
+        AtomicInteger notPermitted = new AtomicInteger();
+        circuitBreaker.getEventPublisher().onCallNotPermitted(event -> notPermitted.incrementAndGet());
+
+        for (int i = 0; i < 4; i++) {
+            gateway.authorizeBatch(List.of(payment())).join();
+        }
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+
+        long started = System.nanoTime();
+        List<Authorization> authorizations = gateway.authorizeBatch(List.of(payment())).join();
+        long elapsedMs = (System.nanoTime() - started) / 1_000_000;
+
+        assertThat(authorizations).containsExactly(Authorization.deferred());
+        assertThat(notPermitted).hasValue(1);
+        assertThat(elapsedMs).isLessThan(100);
+    }
+
+    @Test
+    void saturatedBulkheadRejectsWithoutWaiting() throws InterruptedException {
+        AtomicInteger rejected = new AtomicInteger();
+        bulkheadRegistry.bulkhead(PROVIDER).getEventPublisher().onCallRejected(event -> rejected.incrementAndGet());
+
+        // Two threads busy and one call queued; the remaining two cannot be accepted
+        List<CompletableFuture<List<Authorization>>> calls = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            calls.add(gateway.authorizeBatch(List.of(payment())));
+            if (i < 2) {
+                // Let a thread take the call off the queue before the next one arrives
+                awaitBulkhead(i + 1, 0);
+            }
+        }
+        CompletableFuture.allOf(calls.toArray(CompletableFuture[]::new)).join();
+
+        assertThat(rejected).hasValue(2);
+        assertThat(calls).allSatisfy(call -> assertThat(call.join())
+                .extracting(Authorization::status)
+                .containsExactly(PaymentStatus.PENDING));
+    }
+
+    private void awaitBulkhead(int activeThreads, int queueDepth) throws InterruptedException {
+        ThreadPoolBulkhead.Metrics metrics = bulkheadRegistry.bulkhead(PROVIDER).getMetrics();
+        long deadline = System.currentTimeMillis() + 5000;
+        while ((metrics.getActiveThreadCount() != activeThreads || metrics.getQueueDepth() != queueDepth)
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    private Payment payment() {
+        return Payment.builder()
+                .id((long) paymentIds.incrementAndGet())
+                .status(PaymentStatus.PROCESSING)
+                .build();
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.paymentservice.provider;
+
+import com.example.paymentservice.model.Payment;
+import com.example.paymentservice.model.PaymentStatus;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SimulatedPaymentProviderTest {
+
+    @Test
+    void retryReturnsTheOriginalOutcome() {
+        SimulatedPaymentProvider provider = new SimulatedPaymentProvider(0, 0, 0.0, 0, 0.5, 100);
+
+        List<Authorization> first = provider.authorizeBatch(List.of(payment(1), payment(2)));
+        List<Authorization> retried = provider.authorizeBatch(List.of(payment(2), payment(1)));
+
+        assertThat(retried).containsExactly(first.get(1), first.get(0));
+    }
+
+    @Test
+    void forgetsTheOldestOutcomesBeyondTheLimit() {
+        SimulatedPaymentProvider provider = new SimulatedPaymentProvider(0, 0, 0.0, 0, 1.0, 2);
+
+        Authorization oldest = provider.authorize(payment(1));
+        Authorization kept = provider.authorize(payment(2));
+        provider.authorize(payment(3));
+
+        assertThat(provider.authorize(payment(2))).isEqualTo(kept);
+        assertThat(provider.authorize(payment(1)).transactionId()).isNotEqualTo(oldest.transactionId());
+    }
+
+    private static Payment payment(long id) {
+        return Payment.builder().id(id).status(PaymentStatus.PROCESSING).build();
+    }
+}
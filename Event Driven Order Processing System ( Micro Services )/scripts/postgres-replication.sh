@@ -0,0 +1,5 @@
+#!/bin/bash
+# Runs from /docker-entrypoint-initdb.d on first start of a primary: allows streaming
+# replication connections so a standby can be seeded with pg_basebackup.
+set -e
+echo "host replication all all scram-sha-256" >> "$PGDATA/pg_hba.conf"
@@ -0,0 +1,61 @@
+#!/usr/bin/env bash
+# Measures startup of one service, first as a plain executable jar and then in fast-startup
+# mode (AOT + AppCDS + fast-startup profile). Two times are reported from process start:
+# when the liveness probe first succeeds, and when the first real API request is served,
+# which also pays for lazily created beans, the first connection and any first-use JIT work.
+#
+# Usage: scripts/startup-benchmark.sh <service-dir> <start-class> <port> <api-path>
+#   e.g. scripts/startup-benchmark.sh order-service com.example.orderservice.OrderServiceApplication 8081 /api/orders/1
+# Build first with: mvn -Pfast-startup package
+set -euo pipefail
+
+SERVICE_DIR=$1
+START_CLASS=$2
+PORT=$3
+API_PATH=$4
+URL="http://localhost:${PORT}/actuator/health/liveness"
+API_URL="http://localhost:${PORT}${API_PATH}"
+TARGET="${SERVICE_DIR}/target"
+JAR=$(ls "${TARGET}"/*.jar | grep -v original | head -n 1)
+
+measure() {
+  local label=$1
+  local dir=$2
+  shift 2
+  local start
+  start=$(date +%s%N)
+  (cd "${dir}" && exec "$@" > "${TARGET}/startup-${label}.log" 2>&1) &
+  local pid=$!
+  until curl -sf -o /dev/null "${URL}"; do
+    if ! kill -0 "${pid}" 2>/dev/null; then
+      echo "${label}: process exited before serving a request, see ${TARGET}/startup-${label}.log" >&2
+      return 1
+    fi
+    sleep 0.05
+  done
+  local live=$(( ($(date +%s%N) - start) / 1000000 ))
+
+  # Any non-5xx answer counts as served: a 404 for a missing id has still gone through
+  # the controller, service and database
+  local status
+  until status=$(curl -s -o /dev/null -w '%{http_code}' "${API_URL}") && (( status > 0 && status < 500 )); do
+    if ! kill -0 "${pid}" 2>/dev/null; then
+      echo "${label}: process exited before serving ${API_PATH}, see ${TARGET}/startup-${label}.log" >&2
+      return 1
+    fi
+    sleep 0.05
+  done
+  local served=$(( ($(date +%s%N) - start) / 1000000 ))
+
+  kill "${pid}"
+  wait "${pid}" 2>/dev/null || true
+  echo "$(basename "${SERVICE_DIR}") ${label}: live after ${live} ms, first ${API_PATH} request (HTTP ${status}) after ${served} ms"
+}
+
+measure baseline "${TARGET}" java -jar "${JAR}"
+measure fast-startup "${TARGET}/cds" java \
+  -XX:SharedArchiveFile=app.jsa \
+  -Dspring.aot.enabled=true \
+  -Dspring.profiles.active=fast-startup \
+  -cp "BOOT-INF/classes:BOOT-INF/lib/*" \
+  "${START_CLASS}"
@@ -0,0 +1,51 @@
+#!/usr/bin/env bash
+# Runs the same wrk load against one service in platform-thread mode and then in
+# virtual-thread mode, and prints throughput, p99 latency and error counts for both.
+#
+# Usage: scripts/virtual-thread-benchmark.sh <service-dir> <port> <path> [connections] [duration]
+#   e.g. scripts/virtual-thread-benchmark.sh payment-service 8082 /api/payments/order/1 2000 60s
+# Build first with a Java 21 JDK: mvn -Pvirtual-threads package
+# Needs wrk and the docker-compose stack (Postgres, Kafka, Redis) running.
+set -euo pipefail
+
+SERVICE_DIR=$1
+PORT=$2
+PATH_UNDER_TEST=$3
+CONNECTIONS=${4:-2000}
+DURATION=${5:-60s}
+THREADS=${WRK_THREADS:-8}
+TARGET="${SERVICE_DIR}/target"
+JAR=$(ls "${TARGET}"/*.jar | grep -v original | head -n 1)
+HEALTH="http://localhost:${PORT}/actuator/health/liveness"
+
+run() {
+  local label=$1
+  shift
+  java "$@" -jar "${JAR}" > "${TARGET}/load-${label}.log" 2>&1 &
+  local pid=$!
+  until curl -sf -o /dev/null "${HEALTH}"; do
+    if ! kill -0 "${pid}" 2>/dev/null; then
+      echo "${label}: process exited before becoming live, see ${TARGET}/load-${label}.log" >&2
+      return 1
+    fi
+    sleep 0.2
+  done
+
+  # Short warm-up so both modes are measured with JIT-compiled hot paths
+  wrk -t"${THREADS}" -c"${CONNECTIONS}" -d10s "http://localhost:${PORT}${PATH_UNDER_TEST}" > /dev/null
+  wrk -t"${THREADS}" -c"${CONNECTIONS}" -d"${DURATION}" --latency \
+    "http://localhost:${PORT}${PATH_UNDER_TEST}" > "${TARGET}/load-${label}.txt"
+
+  kill "${pid}"
+  wait "${pid}" 2>/dev/null || true
+
+  local rps p99 errors
+  rps=$(awk '/^Requests\/sec/ {print $2}' "${TARGET}/load-${label}.txt")
+  p99=$(awk '$1 == "99%" {print $2}' "${TARGET}/load-${label}.txt")
+  errors=$(awk '/Non-2xx|Socket errors/' "${TARGET}/load-${label}.txt" | paste -sd ' ' -)
+  echo "$(basename "${SERVICE_DIR}") ${label}: ${rps} req/s, p99 ${p99}${errors:+, ${errors}}"
+}
+
+run platform-threads
+run virtual-threads -Djdk.tracePinnedThreads=short -Dspring.profiles.active=virtual-threads
+echo "Full wrk output: ${TARGET}/load-platform-threads.txt, ${TARGET}/load-virtual-threads.txt"